@@ -0,0 +1,43 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.ArcGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-frame invalidation math: the sub-pixel check and the dirty bounds of the arc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArcGeometryBenchmark {
+
+    private final float[] bounds = new float[4];
+    private float start = -90f;
+
+    @Benchmark
+    public boolean subPixelCheck() {
+        start += .37f;
+        return ArcGeometry.movedLessThan(48f, start - .37f, 120f, start, 121f, .5f);
+    }
+
+    @Benchmark
+    public float dirtyBounds() {
+        start += .37f;
+        ArcGeometry.computeBounds(50f, 50f, 48f, start, 250f, bounds);
+        return bounds[ArcGeometry.LEFT] + bounds[ArcGeometry.BOTTOM];
+    }
+}
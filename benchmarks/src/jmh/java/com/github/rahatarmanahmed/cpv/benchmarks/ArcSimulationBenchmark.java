@@ -0,0 +1,104 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.ArcSimulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per frame of the arc animation, stepped on a virtual clock: a full indeterminate loop, and a progress
+ * stream with an update every few frames. Scores are nanoseconds per frame; the redraw and allocation counts of
+ * the same runs are printed by {@link #main(String[])}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArcSimulationBenchmark {
+
+    // One loop of the default indeterminate animation at 60 fps
+    private static final int FRAMES = 240;
+    private static final long FRAME_INTERVAL = 16;
+
+    @Param({"false", "true"})
+    public boolean progressSmoothing;
+
+    private ArcSimulation simulation;
+
+    @Setup
+    public void setUp() {
+        simulation = newSimulation(progressSmoothing);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public long indeterminateLoop() {
+        simulation.clearFrames();
+        simulation.setIndeterminate(true);
+        simulation.run(FRAMES, FRAME_INTERVAL);
+        return simulation.getRedrawCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public long progressStream() {
+        simulation.clearFrames();
+        simulation.setIndeterminate(false);
+        streamProgress(simulation);
+        return simulation.getRedrawCount();
+    }
+
+    private static ArcSimulation newSimulation(boolean progressSmoothing) {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setProgressSmoothing(progressSmoothing);
+        return simulation;
+    }
+
+    // Progress from 0 to 100 in steps of 2, every 5 frames, like a download reporting at 12 Hz
+    private static void streamProgress(ArcSimulation simulation) {
+        simulation.setProgress(0);
+        for(int i = 0; i < FRAMES; i++) {
+            if(i % 5 == 0)
+                simulation.setProgress(Math.min(100, i / 5 * 2));
+            simulation.step(FRAME_INTERVAL);
+        }
+    }
+
+    /**
+     * Prints the redraws, skipped redraws and allocations of each scenario, for a quick check without JMH.
+     */
+    public static void main(String[] args) {
+        for(boolean smoothing : new boolean[] { false, true }) {
+            ArcSimulation simulation = newSimulation(smoothing);
+            simulation.setAllocationCounter(new ThreadAllocationCounter());
+            simulation.setIndeterminate(true);
+            simulation.run(FRAMES, FRAME_INTERVAL);
+            print("indeterminateLoop", smoothing, simulation);
+
+            simulation.clearFrames();
+            simulation.setIndeterminate(false);
+            streamProgress(simulation);
+            print("progressStream", smoothing, simulation);
+        }
+    }
+
+    private static void print(String scenario, boolean smoothing, ArcSimulation simulation) {
+        System.out.println(scenario + " (progressSmoothing=" + smoothing + "): " + simulation.getFrameCount() + " frames, "
+                + simulation.getRedrawCount() + " redrawn, " + simulation.getSkippedCount() + " skipped, "
+                + simulation.getTotalAllocatedBytes() + " bytes allocated");
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.IndeterminateArc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of computing the indeterminate arc for one frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndeterminateArcBenchmark {
+
+    // One 4 second loop at 60 fps
+    private static final int FRAMES_PER_LOOP = 240;
+
+    @Param({"3", "5"})
+    public int animSteps;
+
+    private final IndeterminateArc arc = new IndeterminateArc();
+    private int frame;
+
+    @Benchmark
+    public float frameState() {
+        frame = (frame + 1) % FRAMES_PER_LOOP;
+        arc.set((float) frame / FRAMES_PER_LOOP, animSteps);
+        return arc.startAngle + arc.rotateOffset + arc.sweep;
+    }
+}
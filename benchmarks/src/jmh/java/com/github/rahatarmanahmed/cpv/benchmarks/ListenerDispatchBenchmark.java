@@ -0,0 +1,79 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.CircularProgressViewAdapter;
+import com.github.rahatarmanahmed.cpv.CircularProgressViewListener;
+import com.github.rahatarmanahmed.cpv.ListenerDispatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of dispatching onProgressUpdate to the registered listeners, as done on every setProgress.
+ * Compares the old ArrayList iteration with the ListenerDispatcher snapshots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerDispatchBenchmark {
+
+    @Param({"1", "4"})
+    public int listenerCount;
+
+    private final List<CircularProgressViewListener> listeners = new ArrayList<>();
+    private final ListenerDispatcher dispatcher = new ListenerDispatcher();
+    private final ListenerDispatcher weakDispatcher = new ListenerDispatcher();
+    private float received;
+
+    @Setup
+    public void setUp() {
+        for(int i = 0; i < listenerCount; i++) {
+            CircularProgressViewListener listener = new CircularProgressViewAdapter() {
+                @Override
+                public void onProgressUpdate(float currentProgress) {
+                    received += currentProgress;
+                }
+            };
+            listeners.add(listener);
+            dispatcher.add(listener);
+            // Held strongly by the list above, so the weak entries stay alive
+            weakDispatcher.addWeak(listener);
+        }
+    }
+
+    // The old dispatch: an enhanced for loop over an ArrayList, allocating an iterator per event
+    @Benchmark
+    public float arrayListIterator() {
+        for(CircularProgressViewListener listener : listeners) {
+            listener.onProgressUpdate(1f);
+        }
+        return received;
+    }
+
+    @Benchmark
+    public float dispatcherSnapshot() {
+        dispatcher.dispatchProgressUpdate(1f);
+        return received;
+    }
+
+    @Benchmark
+    public float dispatcherWeakSnapshot() {
+        weakDispatcher.dispatchProgressUpdate(1f);
+        return received;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.ProgressAggregator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of workers reporting progress into one aggregator, against every worker updating one progress
+ * under a shared lock. The AllCores variants run one worker per core, so their scores show how reporting scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressAggregatorBenchmark {
+
+    private static final int PARTS = 256;
+
+    private final ProgressAggregator aggregator = new ProgressAggregator(PARTS, 100f);
+    private final AtomicInteger nextPart = new AtomicInteger();
+
+    // The lock-based baseline: one progress per part plus the combined progress, all behind one lock
+    private final Object lock = new Object();
+    private final double[] lockedParts = new double[PARTS];
+    private double lockedTotal;
+
+    /** The part each worker thread reports. */
+    @State(Scope.Thread)
+    public static class Worker {
+        int part = -1;
+        double progress;
+    }
+
+    private int partOf(Worker worker) {
+        if(worker.part < 0)
+            worker.part = nextPart.getAndIncrement() % PARTS;
+        worker.progress = (worker.progress + 1) % 100;
+        return worker.part;
+    }
+
+    // Nothing collects here, like the reports between two frames, so only the first one notifies
+    private double reportStriped(Worker worker) {
+        aggregator.set(partOf(worker), worker.progress);
+        return worker.progress;
+    }
+
+    private double reportLocked(Worker worker) {
+        int part = partOf(worker);
+        synchronized (lock) {
+            lockedTotal += worker.progress - lockedParts[part];
+            lockedParts[part] = worker.progress;
+            return lockedTotal;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double stripedOneWorker(Worker worker) {
+        return reportStriped(worker);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public double stripedAllCores(Worker worker) {
+        return reportStriped(worker);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double lockedOneWorker(Worker worker) {
+        return reportLocked(worker);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public double lockedAllCores(Worker worker) {
+        return reportLocked(worker);
+    }
+
+    // What a frame pays to sum every part
+    @Benchmark
+    @Threads(1)
+    public float collect() {
+        return aggregator.collect();
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.ProgressSpring;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of smoothing progress with the spring, stepped at regular and irregular frame times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressSpringBenchmark {
+
+    private final ProgressSpring spring = new ProgressSpring();
+    private double target;
+    private int frame;
+
+    // A new target followed by one 16ms frame
+    @Benchmark
+    public double retargetThenFrame() {
+        target = (target + 1f) % 100f;
+        spring.setTarget(target);
+        spring.step(16);
+        return spring.getPosition();
+    }
+
+    // A target every third frame, with frame times jittering between 8 and 40ms
+    @Benchmark
+    public double irregularFrames() {
+        if(frame++ % 3 == 0) {
+            target = (target + 3f) % 100f;
+            spring.setTarget(target);
+        }
+        spring.step(8 + (frame * 7) % 33);
+        return spring.getPosition();
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.CircularProgressViewAdapter;
+import com.github.rahatarmanahmed.cpv.ProgressChannels;
+import com.github.rahatarmanahmed.cpv.ProgressInputStream;
+import com.github.rahatarmanahmed.cpv.ProgressOutputStream;
+import com.github.rahatarmanahmed.cpv.TransferProgress;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of copying 1MB through the progress-counting streams and channels, against the unwrapped ones.
+ * Scores are bytes per microsecond.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressStreamBenchmark {
+
+    private static final int SIZE = 1024 * 1024;
+
+    // Read and write sizes, from small reads to typical buffered copies
+    @Param({"64", "8192"})
+    public int bufferSize;
+
+    private final byte[] data = new byte[SIZE];
+    private byte[] buffer;
+    private ByteBuffer byteBuffer;
+    private long published;
+
+    private final CircularProgressViewAdapter listener = new CircularProgressViewAdapter() {
+        @Override
+        public void onProgressUpdate(float currentProgress) {
+            published++;
+        }
+    };
+
+    // Discards everything, like a socket that is never the bottleneck
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        buffer = new byte[bufferSize];
+        byteBuffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long readUnwrapped() throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long readCounted() throws IOException {
+        return read(new ProgressInputStream(new ByteArrayInputStream(data), progress()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long writeUnwrapped() throws IOException {
+        return write(sink);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long writeCounted() throws IOException {
+        return write(new ProgressOutputStream(sink, progress()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long channelUnwrapped() throws IOException {
+        return read(Channels.newChannel(new ByteArrayInputStream(data)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long channelCounted() throws IOException {
+        return read(ProgressChannels.readable(Channels.newChannel(new ByteArrayInputStream(data)), progress()));
+    }
+
+    private TransferProgress progress() {
+        return new TransferProgress(SIZE, 100f, listener);
+    }
+
+    private long read(InputStream in) throws IOException {
+        long total = 0;
+        int count;
+        while((count = in.read(buffer, 0, buffer.length)) > 0)
+            total += count;
+        return total + published;
+    }
+
+    private long write(OutputStream out) throws IOException {
+        for(int offset = 0; offset < SIZE; offset += bufferSize)
+            out.write(data, offset, Math.min(bufferSize, SIZE - offset));
+        return published;
+    }
+
+    private long read(ReadableByteChannel channel) throws IOException {
+        long total = 0;
+        int count;
+        byteBuffer.clear();
+        while((count = channel.read(byteBuffer)) > 0) {
+            total += count;
+            byteBuffer.clear();
+        }
+        return total + published;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.ProgressTween;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of retargeting the determinate progress animation, alone and in bursts within one frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressTweenBenchmark {
+
+    private final ProgressTween tween = new ProgressTween();
+    private double shown;
+    private double target;
+
+    // A new target followed by one animation frame
+    @Benchmark
+    public double retargetThenFrame() {
+        target = (target + 1f) % 100f;
+        tween.retarget(shown, target);
+        shown = tween.valueAt(.25f);
+        return shown;
+    }
+
+    // Ten updates arriving within the same frame, as with high-frequency setProgress streams
+    @Benchmark
+    public double burstOfTenRetargets() {
+        for(int i = 0; i < 10; i++) {
+            target = (target + 1f) % 100f;
+            tween.retarget(shown, target);
+        }
+        shown = tween.valueAt(.25f);
+        return shown;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.rahatarmanahmed.cpv.benchmarks;
+
+import com.github.rahatarmanahmed.cpv.ArcSimulation;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the current thread's allocations with HotSpot's com.sun.management.ThreadMXBean,
+ * which is not available on Android so it lives here rather than in the core module.
+ */
+public final class ThreadAllocationCounter implements ArcSimulation.AllocationCounter {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public ThreadAllocationCounter() {
+        if(!threads.isThreadAllocatedMemorySupported())
+            throw new UnsupportedOperationException("This JVM doesn't count allocations per thread");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * A source of time for the animations, so they can be driven by something other than the system clock,
+ * such as a {@link VirtualClock} in tests.
+ */
+public interface AnimationClock {
+    /**
+     * @return the current time in milliseconds
+     */
+    long uptimeMillis();
+}
@@ -0,0 +1,745 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * The animation of a progress view's main arc: the intro swoop and the progress tween or spring in determinate mode,
+ * and the looping arc in indeterminate mode, all stepped by the frames of a {@link FrameTicker}.
+ * It also decides, with a {@link RedrawFilter}, which frames are worth redrawing.
+ * CircularProgressDrawable draws it with frames from the display, and {@link ArcSimulation} steps it with frames
+ * from a {@link VirtualClock}. Must only be used from the thread frames arrive on.
+ */
+final class ArcAnimation {
+
+    interface Listener {
+        /**
+         * Called when a frame moved the arc enough to be redrawn.
+         * @param wholeArc true if no arc was drawn yet, so the redraw can't be limited to the part that moved
+         */
+        void onInvalidateArc(boolean wholeArc);
+
+        /**
+         * Called when a progress animation that was asked to notify its end arrived at its target.
+         */
+        void onProgressAnimationEnd();
+
+        /**
+         * Called when a new loop of the indeterminate animation begins.
+         */
+        void onLoop();
+    }
+
+    // Like a DecelerateInterpolator with a factor of 2
+    private static final float SWOOP_DECELERATION = 2f;
+
+    private final Listener listener;
+    private FrameTicker ticker;
+    private final RedrawFilter redrawFilter = new RedrawFilter();
+
+    // Configuration, defaulting to the view's default attributes
+    private float baseStartAngle = -90;
+    private long swoopDuration = 5000;
+    private long syncDuration = 500;
+    private int animDuration = 4000;
+    private int animSteps = 3;
+    private double maxProgress = 100;
+    private float radius;
+    private boolean progressSmoothing;
+    private boolean phaseSynchronized;
+
+    private boolean indeterminate;
+    private boolean paused;
+    // Set once the intro was shown or skipped, so restarts continue from what is shown instead of replaying it
+    private boolean introShown;
+
+    // What the arc shows
+    private float startAngle = baseStartAngle;
+    // Kept as a double like the host's progress, so large values such as byte counts animate exactly
+    private double actualProgress;
+    private float indeterminateSweep, indeterminateRotateOffset, indeterminateFraction;
+    private final IndeterminateArc indeterminateArc = new IndeterminateArc();
+
+    // Determinate animations, stepped by determinateFrame while any of them runs.
+    // Paused times are the play times to resume from, or -1 for animations that weren't running.
+    private final Timeline swoop = new Timeline();
+    private final Timeline tween = new Timeline();
+    private long pausedSwoopTime = -1, pausedTweenTime = -1;
+    private final ProgressTween progressTween = new ProgressTween();
+    private boolean notifyProgressEnd;
+    // The spring is stepped by the time between frames; lastSpringTime is -1 until its first frame
+    private ProgressSpring spring;
+    private boolean springRunning, springPaused;
+    private long lastSpringTime = -1;
+    private boolean determinateFramePosted;
+
+    // The indeterminate animation, stepped by the ticker along with every other spinner
+    private boolean indeterminateRunning;
+    private long pausedIndeterminateTime = -1;
+
+    // What was last drawn, which redraws are measured against
+    private boolean hasDrawnArc;
+    private float drawnStart, drawnSweep;
+
+    private long invalidationCount, skippedInvalidationCount;
+    private long frameCount, frameTimeNanos;
+
+    private final FrameTicker.FrameCallback determinateFrame = new FrameTicker.FrameCallback() {
+        @Override
+        public void doFrame(long frameTime) {
+            // Removed by another callback of the same frame
+            if(!determinateFramePosted)
+                return;
+            long start = System.nanoTime();
+            stepDeterminate(frameTime);
+            recordFrame(start);
+        }
+    };
+
+    private final FrameTicker.Client indeterminateClient = new FrameTicker.Client() {
+        @Override
+        public void onFrame(float cycleFraction, IndeterminateArc arc) {
+            long start = System.nanoTime();
+            applyIndeterminateArc(cycleFraction, arc);
+            invalidateArc(false, ticker.now());
+            recordFrame(start);
+        }
+
+        @Override
+        public void onLoop() {
+            listener.onLoop();
+        }
+    };
+
+    ArcAnimation(Listener listener, FrameTicker ticker) {
+        this.listener = listener;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Moves the animation to the frames of another ticker, continuing every running animation from where it is.
+     */
+    void setTicker(FrameTicker ticker) {
+        if(this.ticker == ticker)
+            return;
+        long now = this.ticker.now();
+        if(swoop.running)
+            swoop.start(swoop.playTime(now));
+        if(tween.running)
+            tween.start(tween.playTime(now));
+        lastSpringTime = -1;
+        if(determinateFramePosted) {
+            this.ticker.removeFrameCallback(determinateFrame);
+            determinateFramePosted = false;
+        }
+        boolean wasIndeterminateRunning = indeterminateRunning;
+        stopIndeterminate();
+
+        this.ticker = ticker;
+        // The last redraw was timed on the old ticker's clock
+        redrawFilter.reset();
+        updateDeterminateFrame();
+        if(wasIndeterminateRunning)
+            startIndeterminate(getIndeterminatePlayTime());
+    }
+
+    RedrawFilter getRedrawFilter() {
+        return redrawFilter;
+    }
+
+    /**
+     * Sets the angle the determinate arc starts at, and shows it there.
+     */
+    void setStartAngle(float startAngle) {
+        baseStartAngle = startAngle;
+        this.startAngle = startAngle;
+    }
+
+    void setSwoopDuration(long swoopDuration) {
+        this.swoopDuration = swoopDuration;
+    }
+
+    /**
+     * Sets how long a progress animation takes. Takes effect from the next progress update.
+     */
+    void setSyncDuration(long syncDuration) {
+        this.syncDuration = syncDuration;
+    }
+
+    void setIndeterminateAnimation(int animDuration, int animSteps) {
+        this.animDuration = animDuration;
+        this.animSteps = animSteps;
+    }
+
+    void setMaxProgress(double maxProgress) {
+        this.maxProgress = maxProgress;
+    }
+
+    /**
+     * @param radius the radius of the arc in pixels, which the redraw threshold is measured against
+     */
+    void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    boolean isIndeterminate() {
+        return indeterminate;
+    }
+
+    /**
+     * Sets the mode. The animation of the new mode starts with the next {@link #reset(double)}.
+     */
+    void setIndeterminate(boolean indeterminate) {
+        this.indeterminate = indeterminate;
+    }
+
+    boolean isProgressSmoothing() {
+        return progressSmoothing;
+    }
+
+    /**
+     * Switches between the spring and the tween, handing a running progress animation over from where it is.
+     */
+    void setProgressSmoothing(boolean progressSmoothing) {
+        if(this.progressSmoothing == progressSmoothing)
+            return;
+        boolean animating = tween.running || springRunning || pausedTweenTime >= 0 || springPaused;
+        double target = springRunning || springPaused ? spring.getTarget() : progressTween.getTarget();
+        cancelProgress();
+        this.progressSmoothing = progressSmoothing;
+        if(progressSmoothing)
+            spring().reset(actualProgress);
+        if(animating)
+            animateProgressTo(target, notifyProgressEnd);
+    }
+
+    boolean isPhaseSynchronized() {
+        return phaseSynchronized;
+    }
+
+    /**
+     * Sets whether the indeterminate animation is in phase with every other synchronized one on the same ticker.
+     */
+    void setPhaseSynchronized(boolean phaseSynchronized) {
+        if(this.phaseSynchronized == phaseSynchronized)
+            return;
+        this.phaseSynchronized = phaseSynchronized;
+        // Rejoin the ticker, continuing from the current phase unless it now has to match the others
+        if(indeterminateRunning) {
+            stopIndeterminate();
+            startIndeterminate(getIndeterminatePlayTime());
+        }
+    }
+
+    /**
+     * Starts over: with the intro swoop and the progress animating up from 0 in determinate mode,
+     * or from the start of a loop in indeterminate mode.
+     * @param progress the progress to animate to in determinate mode
+     */
+    void reset(double progress) {
+        paused = false;
+        introShown = false;
+        cancelSwoop();
+        cancelProgress();
+        stopIndeterminate();
+        if(!indeterminate) {
+            startAngle = baseStartAngle;
+            swoop.start(0);
+            updateDeterminateFrame();
+            actualProgress = 0;
+            if(spring != null)
+                spring.reset(0f);
+            animateProgressTo(progress, false);
+        }
+        else {
+            setIndeterminateFraction(0f);
+            startIndeterminate(0);
+        }
+    }
+
+    /**
+     * Starts animating again after being stopped, such as when a view is attached or shown again. Once the intro was
+     * shown, this continues from what the arc shows: the determinate progress without animating it again, and the
+     * indeterminate loop if it is still running. Otherwise it starts over like {@link #reset(double)}.
+     * @param progress the progress to show in determinate mode
+     * @return true if it started over
+     */
+    boolean start(double progress) {
+        if(!introShown || (indeterminate && !indeterminateRunning)) {
+            reset(progress);
+            return true;
+        }
+        if(!indeterminate) {
+            stop();
+            jumpToCurrentState(progress);
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the intro was shown, or skipped by showing a state right away, since the last reset
+     */
+    boolean isIntroShown() {
+        return introShown;
+    }
+
+    /**
+     * Stops every animation where it is.
+     */
+    void stop() {
+        paused = false;
+        cancelSwoop();
+        cancelProgress();
+        stopIndeterminate();
+    }
+
+    /**
+     * Finishes the intro swoop and the progress animation, showing the given progress.
+     * The indeterminate animation keeps running.
+     */
+    void jumpToCurrentState(double progress) {
+        cancelSwoop();
+        if(!indeterminate)
+            startAngle = baseStartAngle;
+        settleProgress(progress);
+    }
+
+    /**
+     * Shows the given progress right away, stopping the progress animation but no other animation.
+     * Later restarts continue from it instead of replaying the intro.
+     */
+    void settleProgress(double progress) {
+        introShown = true;
+        cancelProgress();
+        if(spring != null)
+            spring.reset(progress);
+        actualProgress = progress;
+    }
+
+    /**
+     * Animates the shown progress towards a target with the tween or the spring.
+     * Retargets made before the tween has advanced a frame only move its target,
+     * so a burst of updates within one frame costs a single restart. While paused, the animation starts when resumed.
+     * @param notifyEnd true to tell the listener when the target is reached
+     */
+    void animateProgressTo(double target, boolean notifyEnd) {
+        notifyProgressEnd = notifyEnd;
+        if(progressSmoothing) {
+            springTo(target);
+            return;
+        }
+        if(!progressTween.retarget(actualProgress, target))
+            return;
+        if(paused) {
+            progressTween.settle();
+            pausedTweenTime = 0;
+            return;
+        }
+        // A running tween starts over from the progress it shows
+        tween.start(0);
+        updateDeterminateFrame();
+    }
+
+    /**
+     * @return true if any animation of the arc is running
+     */
+    boolean isRunning() {
+        return determinateFramePosted || indeterminateRunning;
+    }
+
+    boolean isIndeterminateRunning() {
+        return indeterminateRunning;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pauses every animation, keeping its phase so {@link #resume()} can continue from it.
+     * Progress animations started while paused only start when resumed.
+     */
+    void pause() {
+        if(paused)
+            return;
+        paused = true;
+        long now = ticker.now();
+        if(swoop.running) {
+            pausedSwoopTime = swoop.playTime(now);
+            swoop.running = false;
+        }
+        if(tween.running) {
+            pausedTweenTime = tween.playTime(now);
+            tween.running = false;
+        }
+        if(springRunning) {
+            springRunning = false;
+            springPaused = true;
+        }
+        updateDeterminateFrame();
+        // The indeterminate animation loops, so its position is tracked by the loop fraction instead
+        pausedIndeterminateTime = -1;
+        if(indeterminateRunning) {
+            pausedIndeterminateTime = getIndeterminatePlayTime();
+            stopIndeterminate();
+        }
+    }
+
+    /**
+     * Resumes every paused animation from the phase it was paused at.
+     */
+    void resume() {
+        if(!paused)
+            return;
+        paused = false;
+        if(pausedSwoopTime >= 0)
+            swoop.start(pausedSwoopTime);
+        if(pausedTweenTime >= 0)
+            tween.start(pausedTweenTime);
+        pausedSwoopTime = pausedTweenTime = -1;
+        if(springPaused)
+            startSpring();
+        updateDeterminateFrame();
+        if(pausedIndeterminateTime >= 0)
+            startIndeterminate(pausedIndeterminateTime);
+        pausedIndeterminateTime = -1;
+    }
+
+    /**
+     * Shows an arc captured earlier, with every animation stopped.
+     */
+    void show(double actualProgress, float startAngle, long indeterminatePlayTime) {
+        stop();
+        introShown = true;
+        this.actualProgress = actualProgress;
+        this.startAngle = startAngle;
+        if(spring != null)
+            spring.reset(actualProgress);
+        if(indeterminate) {
+            long cycleDuration = getCycleDuration();
+            setIndeterminateFraction(cycleDuration > 0 ? (float) (indeterminatePlayTime % cycleDuration) / cycleDuration : 0f);
+        }
+    }
+
+    /**
+     * Pauses the arc shown by {@link #show(double, float, long)} at the phase it was captured at, to continue from
+     * there when resumed.
+     * @param swoopPlayTime the play time of the intro swoop, or -1 if it wasn't running
+     * @param progress the progress to continue animating to
+     */
+    void pauseAt(long swoopPlayTime, long indeterminatePlayTime, double progress) {
+        paused = true;
+        if(indeterminate)
+            pausedIndeterminateTime = indeterminatePlayTime;
+        else {
+            pausedSwoopTime = swoopPlayTime;
+            if(actualProgress != progress)
+                animateProgressTo(progress, false);
+        }
+    }
+
+    /**
+     * @return the angle the arc starts at, before the indeterminate rotation
+     */
+    float getStartAngle() {
+        return startAngle;
+    }
+
+    /**
+     * @return the progress the determinate arc shows
+     */
+    double getActualProgress() {
+        return actualProgress;
+    }
+
+    /**
+     * @return the angle the arc is drawn from
+     */
+    float getStart() {
+        return indeterminate ? startAngle + indeterminateRotateOffset : startAngle;
+    }
+
+    /**
+     * @return the sweep the arc is drawn with
+     */
+    float getSweep() {
+        return indeterminate ? indeterminateSweep : ArcGeometry.sweepAngle(actualProgress, maxProgress);
+    }
+
+    /**
+     * @return the position in the indeterminate loop, in [0, 1]
+     */
+    float getIndeterminateFraction() {
+        return indeterminateFraction;
+    }
+
+    /**
+     * @return the play time of the intro swoop, or -1 if it isn't running or paused
+     */
+    long getSwoopPlayTime() {
+        if(paused)
+            return pausedSwoopTime;
+        return swoop.running ? swoop.playTime(ticker.now()) : -1;
+    }
+
+    /**
+     * @return the position in the indeterminate loop, in milliseconds
+     */
+    long getIndeterminatePlayTime() {
+        return (long) (indeterminateFraction * getCycleDuration());
+    }
+
+    /**
+     * Remembers the arc that was drawn, which later frames must move away from by the threshold to be redrawn.
+     */
+    void onDrawn(float start, float sweep) {
+        drawnStart = start;
+        drawnSweep = sweep;
+        hasDrawnArc = true;
+    }
+
+    boolean hasDrawnArc() {
+        return hasDrawnArc;
+    }
+
+    float getDrawnStart() {
+        return drawnStart;
+    }
+
+    float getDrawnSweep() {
+        return drawnSweep;
+    }
+
+    /**
+     * @return the number of redraws the animations requested
+     */
+    long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * @return the number of requested redraws the filter skipped
+     */
+    long getSkippedInvalidationCount() {
+        return skippedInvalidationCount;
+    }
+
+    void resetInvalidationCounters() {
+        invalidationCount = 0;
+        skippedInvalidationCount = 0;
+    }
+
+    /**
+     * @return the number of frames the animations were stepped
+     */
+    long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return the time spent stepping the animations, in nanoseconds
+     */
+    long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    void resetFrameCounters() {
+        frameCount = 0;
+        frameTimeNanos = 0;
+    }
+
+    private void stepDeterminate(long frameTime)
+    {
+        if(swoop.running) {
+            float fraction = fraction(swoop.playTimeAtFrame(frameTime), swoopDuration);
+            startAngle = baseStartAngle + 360 * (1f - (float) Math.pow(1f - fraction, 2 * SWOOP_DECELERATION));
+            if(fraction >= 1f) {
+                swoop.running = false;
+                introShown = true;
+            }
+        }
+        boolean progressEnded = false;
+        if(tween.running) {
+            float fraction = fraction(tween.playTimeAtFrame(frameTime), syncDuration);
+            actualProgress = progressTween.valueAt(fraction);
+            if(fraction >= 1f) {
+                tween.running = false;
+                progressTween.settle();
+                progressEnded = true;
+            }
+        }
+        else if(springRunning) {
+            // Stepped by the real time between frames, however irregular, until it comes to rest
+            if(lastSpringTime < 0)
+                lastSpringTime = frameTime;
+            boolean moving = spring.step(frameTime - lastSpringTime);
+            lastSpringTime = frameTime;
+            actualProgress = spring.getPosition();
+            if(!moving) {
+                springRunning = false;
+                progressEnded = true;
+            }
+        }
+        // Stop asking for frames before the listener can start another animation
+        updateDeterminateFrame();
+        // Make sure the final position is drawn even if the last step was too small to redraw
+        invalidateArc(progressEnded, frameTime);
+        if(progressEnded && notifyProgressEnd)
+            listener.onProgressAnimationEnd();
+    }
+
+    private static float fraction(long playTime, long duration)
+    {
+        if(duration <= 0)
+            return 1f;
+        return Math.min(1f, Math.max(0f, (float) playTime / duration));
+    }
+
+    // Invalidates the arc, unless neither of its ends moved enough or the frame-rate cap was reached
+    private void invalidateArc(boolean force, long now)
+    {
+        invalidationCount++;
+        if(!hasDrawnArc) {
+            listener.onInvalidateArc(true);
+            return;
+        }
+        if(force)
+            redrawFilter.onForcedRedraw(now);
+        else if(!redrawFilter.accept(now, radius, drawnStart, drawnSweep, getStart(), getSweep())) {
+            skippedInvalidationCount++;
+            return;
+        }
+        listener.onInvalidateArc(false);
+    }
+
+    private void recordFrame(long startNanos)
+    {
+        frameCount++;
+        frameTimeNanos += System.nanoTime() - startNanos;
+    }
+
+    private void springTo(double target)
+    {
+        ProgressSpring spring = spring();
+        spring.setSmoothingDuration(syncDuration);
+        // Rest once the arc is within a fraction of a degree of the target
+        spring.setRestThreshold(Math.abs(maxProgress) / 2000);
+        spring.setTarget(target);
+        if(paused) {
+            springPaused = true;
+            return;
+        }
+        // A running spring just follows the new target, keeping its velocity
+        if(!springRunning)
+            startSpring();
+    }
+
+    // Starts stepping the spring from the next frame, so time spent stopped or paused doesn't count
+    private void startSpring()
+    {
+        springPaused = false;
+        springRunning = true;
+        lastSpringTime = -1;
+        updateDeterminateFrame();
+    }
+
+    private ProgressSpring spring()
+    {
+        if(spring == null) {
+            spring = new ProgressSpring();
+            spring.reset(actualProgress);
+        }
+        return spring;
+    }
+
+    private void cancelSwoop()
+    {
+        swoop.running = false;
+        pausedSwoopTime = -1;
+        updateDeterminateFrame();
+    }
+
+    private void cancelProgress()
+    {
+        tween.running = false;
+        springRunning = false;
+        pausedTweenTime = -1;
+        springPaused = false;
+        progressTween.settle();
+        updateDeterminateFrame();
+    }
+
+    // Posts the determinate frame callback while a determinate animation runs, and removes it once none does
+    private void updateDeterminateFrame()
+    {
+        boolean running = swoop.running || tween.running || springRunning;
+        if(running == determinateFramePosted)
+            return;
+        determinateFramePosted = running;
+        if(running)
+            ticker.addFrameCallback(determinateFrame);
+        else
+            ticker.removeFrameCallback(determinateFrame);
+    }
+
+    // Joins the ticker as if the animation had already been running for the given time
+    private void startIndeterminate(long playTime)
+    {
+        long startTime = phaseSynchronized ? FrameTicker.SYNCHRONIZED_START : ticker.now() - playTime;
+        ticker.register(indeterminateClient, getCycleDuration(), animSteps, startTime);
+        indeterminateRunning = true;
+    }
+
+    private void stopIndeterminate()
+    {
+        if(!indeterminateRunning)
+            return;
+        ticker.unregister(indeterminateClient);
+        indeterminateRunning = false;
+    }
+
+    // Computes the indeterminate arc for the given point in the loop, in [0, 1]
+    private void setIndeterminateFraction(float cycleFraction)
+    {
+        indeterminateArc.set(cycleFraction, animSteps);
+        applyIndeterminateArc(cycleFraction, indeterminateArc);
+    }
+
+    private void applyIndeterminateArc(float cycleFraction, IndeterminateArc arc)
+    {
+        indeterminateFraction = cycleFraction;
+        startAngle = arc.startAngle;
+        indeterminateSweep = arc.sweep;
+        indeterminateRotateOffset = arc.rotateOffset;
+    }
+
+    private long getCycleDuration()
+    {
+        return IndeterminateArc.cycleDuration(animDuration, animSteps);
+    }
+
+    // The play time of an animation, which like an animator's counts from the first frame after it started
+    private static final class Timeline {
+        boolean running;
+        private long startTime;
+        // The play time to start at on the next frame, or -1 once started
+        private long pendingPlayTime = -1;
+
+        void start(long playTime) {
+            running = true;
+            pendingPlayTime = playTime;
+        }
+
+        long playTime(long now) {
+            if(pendingPlayTime >= 0)
+                return pendingPlayTime;
+            return now - startTime;
+        }
+
+        // Like playTime, but the first frame after a start fixes when it started
+        long playTimeAtFrame(long frameTime) {
+            if(pendingPlayTime >= 0) {
+                startTime = frameTime - pendingPlayTime;
+                pendingPlayTime = -1;
+            }
+            return frameTime - startTime;
+        }
+    }
+}
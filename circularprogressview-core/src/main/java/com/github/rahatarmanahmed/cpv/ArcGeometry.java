@@ -0,0 +1,97 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * Geometry of the progress arc, shared by everything that draws or invalidates it.
+ * Angles are in degrees, with 0 pointing right and positive angles going clockwise, like Android's Canvas.
+ */
+public final class ArcGeometry {
+
+    /** Index of the left edge in a bounds array. */
+    public static final int LEFT = 0;
+    /** Index of the top edge in a bounds array. */
+    public static final int TOP = 1;
+    /** Index of the right edge in a bounds array. */
+    public static final int RIGHT = 2;
+    /** Index of the bottom edge in a bounds array. */
+    public static final int BOTTOM = 3;
+
+    private ArcGeometry() {}
+
+    /**
+     * Converts determinate progress to the sweep of the arc.
+     * @param progress the progress to show
+     * @param maxProgress the progress considered to be 100%
+     * @return the sweep of the arc, in degrees
+     */
+    public static float sweepAngle(float progress, float maxProgress) {
+        return progress/maxProgress*360;
+    }
+
+    /**
+     * Converts determinate progress to the sweep of the arc, for progress too large to hold exactly in a float,
+     * such as byte counts past 2^24.
+     * @param progress the progress to show
+     * @param maxProgress the progress considered to be 100%
+     * @return the sweep of the arc, in degrees
+     */
+    public static float sweepAngle(double progress, double maxProgress) {
+        return (float) (progress/maxProgress*360);
+    }
+
+    /**
+     * Returns whether both ends of an arc moved by less than the given distance.
+     * @param radius the radius of the arc, in pixels
+     * @param threshold the distance, in pixels
+     * @return true if neither end of the arc moved by at least threshold pixels
+     */
+    public static boolean movedLessThan(float radius, float oldStart, float oldSweep, float newStart, float newSweep, float threshold) {
+        float pixelsPerDegree = (float) Math.toRadians(radius);
+        float startMoved = Math.abs(newStart - oldStart) * pixelsPerDegree;
+        float endMoved = Math.abs(newStart + newSweep - oldStart - oldSweep) * pixelsPerDegree;
+        return startMoved < threshold && endMoved < threshold;
+    }
+
+    /**
+     * Computes the bounding box of the arc's center line.
+     * @param cx the x coordinate of the arc's center
+     * @param cy the y coordinate of the arc's center
+     * @param radius the radius of the arc
+     * @param start the start angle of the arc
+     * @param sweep the sweep of the arc
+     * @param out receives the bounds, indexed by {@link #LEFT}, {@link #TOP}, {@link #RIGHT} and {@link #BOTTOM}
+     */
+    public static void computeBounds(float cx, float cy, float radius, float start, float sweep, float[] out) {
+        if(Math.abs(sweep) >= 360f) {
+            out[LEFT] = cx - radius;
+            out[TOP] = cy - radius;
+            out[RIGHT] = cx + radius;
+            out[BOTTOM] = cy + radius;
+            return;
+        }
+        if(sweep < 0) {
+            start += sweep;
+            sweep = -sweep;
+        }
+
+        double startRad = Math.toRadians(start);
+        double endRad = Math.toRadians(start + sweep);
+        float x0 = cx + radius * (float) Math.cos(startRad);
+        float y0 = cy + radius * (float) Math.sin(startRad);
+        float x1 = cx + radius * (float) Math.cos(endRad);
+        float y1 = cy + radius * (float) Math.sin(endRad);
+        out[LEFT] = Math.min(x0, x1);
+        out[TOP] = Math.min(y0, y1);
+        out[RIGHT] = Math.max(x0, x1);
+        out[BOTTOM] = Math.max(y0, y1);
+
+        // Extend to the circle's edge for every axis the arc crosses (0 is right, 90 is bottom)
+        for(float axis = (float) Math.ceil(start / 90f) * 90f; axis <= start + sweep; axis += 90f) {
+            switch((((int) (axis / 90f)) % 4 + 4) % 4) {
+                case 0: out[RIGHT] = cx + radius; break;
+                case 1: out[BOTTOM] = cy + radius; break;
+                case 2: out[LEFT] = cx - radius; break;
+                default: out[TOP] = cy - radius; break;
+            }
+        }
+    }
+}
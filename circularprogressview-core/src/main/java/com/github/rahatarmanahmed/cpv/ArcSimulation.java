@@ -0,0 +1,389 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.Arrays;
+
+/**
+ * Steps the arc of a progress view through virtual frames on a {@link VirtualClock}, without a Looper or a display.
+ * It drives the same {@link ArcAnimation} as CircularProgressDrawable: the intro swoop and the progress tween or
+ * spring in determinate mode, the looping arc in indeterminate mode, and the redraw filter, only with its frames
+ * coming from the clock. Thousands of frames run in milliseconds on a plain JVM, so animation behaviour and cost
+ * can be checked in tests and benchmarks. Every frame records the arc that would be drawn, whether it would be
+ * redrawn, and, with an {@link AllocationCounter}, how many bytes computing it allocated. Not thread-safe.
+ */
+public final class ArcSimulation {
+
+    /**
+     * Counts the bytes allocated by the current thread, for example with com.sun.management.ThreadMXBean.
+     */
+    public interface AllocationCounter {
+        /**
+         * @return the bytes allocated by the current thread so far
+         */
+        long allocatedBytes();
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final VirtualClock clock;
+    private final ArcAnimation animation;
+    private double progress;
+    // Set when the animation invalidates the arc, and cleared when the frame is recorded
+    private boolean redrawRequested;
+    private long loopCount;
+
+    private AllocationCounter allocationCounter;
+    // What a pair of calls to the counter allocates itself, taken off every frame
+    private long counterOverhead;
+
+    // Recorded frames
+    private int frameCount;
+    private float[] starts = new float[INITIAL_CAPACITY];
+    private float[] sweeps = new float[INITIAL_CAPACITY];
+    private boolean[] redrawn = new boolean[INITIAL_CAPACITY];
+    private long[] allocatedBytes = new long[INITIAL_CAPACITY];
+    private long redrawCount;
+
+    public ArcSimulation() {
+        this(new VirtualClock());
+    }
+
+    /**
+     * @param clock the clock the simulation advances, which can also be given to the code under test
+     */
+    public ArcSimulation(VirtualClock clock) {
+        this.clock = clock;
+        animation = new ArcAnimation(new ArcAnimation.Listener() {
+            @Override
+            public void onInvalidateArc(boolean wholeArc) {
+                redrawRequested = true;
+            }
+
+            @Override
+            public void onProgressAnimationEnd() {
+            }
+
+            @Override
+            public void onLoop() {
+                loopCount++;
+            }
+        }, clock.getFrameTicker());
+        animation.setRadius(48);
+    }
+
+    /**
+     * @return the clock the simulation advances
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the filter deciding which frames are redrawn, to set its threshold and frame-rate cap
+     */
+    public RedrawFilter getRedrawFilter() {
+        return animation.getRedrawFilter();
+    }
+
+    /**
+     * Measures the allocations of every following frame.
+     * @param allocationCounter the counter, or null to stop measuring
+     */
+    public void setAllocationCounter(AllocationCounter allocationCounter) {
+        this.allocationCounter = allocationCounter;
+        counterOverhead = 0;
+        if(allocationCounter != null) {
+            // Take the smallest of a few tries, in case the counter allocates lazily on its first calls
+            long overhead = Long.MAX_VALUE;
+            for(int i = 0; i < 3; i++) {
+                long before = allocationCounter.allocatedBytes();
+                overhead = Math.min(overhead, allocationCounter.allocatedBytes() - before);
+            }
+            counterOverhead = overhead;
+        }
+    }
+
+    /**
+     * @param animDuration the duration of one loop of the indeterminate animation, in milliseconds
+     * @param animSteps the number of steps in one loop
+     */
+    public void setIndeterminateAnimation(int animDuration, int animSteps) {
+        animation.setIndeterminateAnimation(animDuration, animSteps);
+    }
+
+    /**
+     * @param animSwoopDuration the duration of the intro swoop, in milliseconds
+     */
+    public void setAnimSwoopDuration(long animSwoopDuration) {
+        animation.setSwoopDuration(animSwoopDuration);
+    }
+
+    /**
+     * @param animSyncDuration the duration of a progress animation, in milliseconds
+     */
+    public void setAnimSyncDuration(long animSyncDuration) {
+        animation.setSyncDuration(animSyncDuration);
+    }
+
+    /**
+     * @param startAngle the angle the determinate arc starts at, in degrees
+     */
+    public void setStartAngle(float startAngle) {
+        animation.setStartAngle(startAngle);
+    }
+
+    /**
+     * @param maxProgress the progress value considered to be 100%
+     */
+    public void setMaxProgress(double maxProgress) {
+        animation.setMaxProgress(maxProgress);
+    }
+
+    /**
+     * @param radius the radius of the arc in pixels, which the redraw threshold is measured against
+     */
+    public void setRadius(float radius) {
+        animation.setRadius(radius);
+    }
+
+    /**
+     * @param progressSmoothing true to animate progress with a spring, false for the linear tween
+     */
+    public void setProgressSmoothing(boolean progressSmoothing) {
+        animation.setProgressSmoothing(progressSmoothing);
+    }
+
+    /**
+     * Switches between the indeterminate and determinate mode, starting the animation of the new mode
+     * like the view's setIndeterminate. The next frame redraws the whole arc.
+     * @param indeterminate true for the indeterminate mode
+     */
+    public void setIndeterminate(boolean indeterminate) {
+        if(animation.isIndeterminate() == indeterminate)
+            return;
+        animation.setIndeterminate(indeterminate);
+        animation.reset(progress);
+        redrawRequested = true;
+    }
+
+    /**
+     * Starts the animation of the current mode over like the view's resetAnimation: with the intro swoop and the
+     * progress animating up from 0 in determinate mode, or from the start of a loop in indeterminate mode.
+     */
+    public void reset() {
+        animation.reset(progress);
+    }
+
+    /**
+     * Starts animating again like a view that is attached or made visible: continues from what the arc shows once
+     * the intro was shown, and starts over with it otherwise.
+     */
+    public void start() {
+        animation.start(progress);
+    }
+
+    /**
+     * Pauses the animation like a view that is detached, keeping its phase for {@link #resume()}.
+     * Does nothing if nothing is running.
+     */
+    public void pause() {
+        if(animation.isRunning())
+            animation.pause();
+    }
+
+    /**
+     * Resumes a paused animation from the phase it was paused at.
+     */
+    public void resume() {
+        animation.resume();
+    }
+
+    /**
+     * Stops the animation where it is, like the view's stopAnimation.
+     */
+    public void stop() {
+        animation.stop();
+    }
+
+    /**
+     * @return true if the animation is paused
+     */
+    public boolean isPaused() {
+        return animation.isPaused();
+    }
+
+    /**
+     * @return true if the intro was shown since the last reset, so {@link #start()} won't replay it
+     */
+    public boolean isIntroShown() {
+        return animation.isIntroShown();
+    }
+
+    /**
+     * Sets the progress, which animates to it from the next frame like the view's setProgress.
+     * @param progress the new progress
+     */
+    public void setProgress(double progress) {
+        this.progress = progress;
+        if(!animation.isIndeterminate())
+            animation.animateProgressTo(progress, true);
+    }
+
+    /**
+     * @return the progress currently shown
+     */
+    public double getShownProgress() {
+        return animation.getActualProgress();
+    }
+
+    /**
+     * @return true if an animation is still running
+     */
+    public boolean isRunning() {
+        return animation.isRunning();
+    }
+
+    /**
+     * Advances the clock, which runs the frame of the animation, and records the frame.
+     * @param interval the time since the previous frame, in milliseconds
+     */
+    public void step(long interval) {
+        if(frameCount == starts.length)
+            grow(frameCount * 2);
+        AllocationCounter counter = allocationCounter;
+        long before = counter != null ? counter.allocatedBytes() : 0;
+        clock.advance(interval);
+        record();
+        allocatedBytes[frameCount] = counter != null ? Math.max(0, counter.allocatedBytes() - before - counterOverhead) : 0;
+        frameCount++;
+    }
+
+    /**
+     * Records a number of frames at a steady rate.
+     * @param frames the number of frames
+     * @param interval the time between two frames, in milliseconds, e.g. 16 for 60 fps
+     */
+    public void run(int frames, long interval) {
+        if(frameCount + frames > starts.length)
+            grow(frameCount + frames);
+        for(int i = 0; i < frames; i++)
+            step(interval);
+    }
+
+    // Records the arc of a frame, drawing it like the drawable would if the animation invalidated it
+    private void record()
+    {
+        float start = animation.getStart();
+        float sweep = animation.getSweep();
+        starts[frameCount] = start;
+        sweeps[frameCount] = sweep;
+        // Nothing asks for a redraw when nothing animates, except the very first frame
+        boolean redraw = redrawRequested || !animation.hasDrawnArc();
+        redrawRequested = false;
+        if(redraw) {
+            redrawCount++;
+            animation.onDrawn(start, sweep);
+        }
+        redrawn[frameCount] = redraw;
+    }
+
+    /**
+     * @return the number of frames recorded
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @param frame the index of the frame
+     * @return the start angle of the arc in the frame, in degrees
+     */
+    public float getStart(int frame) {
+        return starts[checkFrame(frame)];
+    }
+
+    /**
+     * @param frame the index of the frame
+     * @return the sweep of the arc in the frame, in degrees
+     */
+    public float getSweep(int frame) {
+        return sweeps[checkFrame(frame)];
+    }
+
+    /**
+     * @param frame the index of the frame
+     * @return true if the frame was redrawn, false if it was skipped or nothing moved
+     */
+    public boolean isRedrawn(int frame) {
+        return redrawn[checkFrame(frame)];
+    }
+
+    /**
+     * @param frame the index of the frame
+     * @return the bytes computing the frame allocated, or 0 without an allocation counter
+     */
+    public long getAllocatedBytes(int frame) {
+        return allocatedBytes[checkFrame(frame)];
+    }
+
+    /**
+     * @return the bytes all recorded frames allocated
+     */
+    public long getTotalAllocatedBytes() {
+        long total = 0;
+        for(int i = 0; i < frameCount; i++)
+            total += allocatedBytes[i];
+        return total;
+    }
+
+    /**
+     * @return the number of redraws the animations requested, like the drawable's invalidation count
+     */
+    public long getInvalidationCount() {
+        return animation.getInvalidationCount();
+    }
+
+    /**
+     * @return the number of frames redrawn
+     */
+    public long getRedrawCount() {
+        return redrawCount;
+    }
+
+    /**
+     * @return the number of requested redraws the filter skipped
+     */
+    public long getSkippedCount() {
+        return animation.getSkippedInvalidationCount();
+    }
+
+    /**
+     * @return the number of indeterminate loops begun after the first
+     */
+    public long getLoopCount() {
+        return loopCount;
+    }
+
+    /**
+     * Forgets the recorded frames and counters, keeping the clock, the mode and the progress.
+     */
+    public void clearFrames() {
+        frameCount = 0;
+        redrawCount = loopCount = 0;
+        animation.resetInvalidationCounters();
+    }
+
+    private int checkFrame(int frame)
+    {
+        if(frame < 0 || frame >= frameCount)
+            throw new IndexOutOfBoundsException("Frame " + frame + " of " + frameCount);
+        return frame;
+    }
+
+    private void grow(int capacity)
+    {
+        starts = Arrays.copyOf(starts, capacity);
+        sweeps = Arrays.copyOf(sweeps, capacity);
+        redrawn = Arrays.copyOf(redrawn, capacity);
+        allocatedBytes = Arrays.copyOf(allocatedBytes, capacity);
+    }
+}
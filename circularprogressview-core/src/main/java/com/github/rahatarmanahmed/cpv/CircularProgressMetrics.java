@@ -0,0 +1,126 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * An immutable snapshot of what drawing and animating progress bars has cost.
+ * Snapshots can be subtracted from each other to measure an interval, e.g. the time a screen was shown.
+ */
+public final class CircularProgressMetrics {
+
+    private final int instanceCount;
+    private final long framesDrawn;
+    private final long invalidationsRequested;
+    private final long invalidationsSkipped;
+    private final long animatorUpdates;
+    private final long drawTimeNanos;
+    private final long animatorUpdateTimeNanos;
+
+    public CircularProgressMetrics(int instanceCount, long framesDrawn, long invalidationsRequested, long invalidationsSkipped,
+                                   long animatorUpdates, long drawTimeNanos, long animatorUpdateTimeNanos) {
+        this.instanceCount = instanceCount;
+        this.framesDrawn = framesDrawn;
+        this.invalidationsRequested = invalidationsRequested;
+        this.invalidationsSkipped = invalidationsSkipped;
+        this.animatorUpdates = animatorUpdates;
+        this.drawTimeNanos = drawTimeNanos;
+        this.animatorUpdateTimeNanos = animatorUpdateTimeNanos;
+    }
+
+    /**
+     * @return the number of progress bars these metrics cover
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * @return the number of times the arc was drawn
+     */
+    public long getFramesDrawn() {
+        return framesDrawn;
+    }
+
+    /**
+     * @return the number of redraws the animations requested
+     */
+    public long getInvalidationsRequested() {
+        return invalidationsRequested;
+    }
+
+    /**
+     * @return the number of requested redraws that were skipped (sub-pixel changes or the frame-rate cap)
+     */
+    public long getInvalidationsSkipped() {
+        return invalidationsSkipped;
+    }
+
+    /**
+     * @return the number of requested redraws that actually invalidated the view
+     */
+    public long getInvalidationsPerformed() {
+        return invalidationsRequested - invalidationsSkipped;
+    }
+
+    /**
+     * @return the number of animator update and animation frame callbacks
+     */
+    public long getAnimatorUpdates() {
+        return animatorUpdates;
+    }
+
+    /**
+     * @return the total time spent drawing, in nanoseconds
+     */
+    public long getDrawTimeNanos() {
+        return drawTimeNanos;
+    }
+
+    /**
+     * @return the total time spent in animator update and animation frame callbacks, in nanoseconds
+     */
+    public long getAnimatorUpdateTimeNanos() {
+        return animatorUpdateTimeNanos;
+    }
+
+    /**
+     * Adds two snapshots together, e.g. to combine several progress bars.
+     * @param other the snapshot to add
+     * @return the combined metrics
+     */
+    public CircularProgressMetrics plus(CircularProgressMetrics other) {
+        return new CircularProgressMetrics(instanceCount + other.instanceCount,
+                framesDrawn + other.framesDrawn,
+                invalidationsRequested + other.invalidationsRequested,
+                invalidationsSkipped + other.invalidationsSkipped,
+                animatorUpdates + other.animatorUpdates,
+                drawTimeNanos + other.drawTimeNanos,
+                animatorUpdateTimeNanos + other.animatorUpdateTimeNanos);
+    }
+
+    /**
+     * Returns what was recorded since an earlier snapshot. The instance count is the current one.
+     * @param earlier a snapshot taken before this one
+     * @return the metrics recorded between the two snapshots
+     */
+    public CircularProgressMetrics minus(CircularProgressMetrics earlier) {
+        return new CircularProgressMetrics(instanceCount,
+                framesDrawn - earlier.framesDrawn,
+                invalidationsRequested - earlier.invalidationsRequested,
+                invalidationsSkipped - earlier.invalidationsSkipped,
+                animatorUpdates - earlier.animatorUpdates,
+                drawTimeNanos - earlier.drawTimeNanos,
+                animatorUpdateTimeNanos - earlier.animatorUpdateTimeNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "CircularProgressMetrics{" +
+                "instanceCount=" + instanceCount +
+                ", framesDrawn=" + framesDrawn +
+                ", invalidationsRequested=" + invalidationsRequested +
+                ", invalidationsSkipped=" + invalidationsSkipped +
+                ", animatorUpdates=" + animatorUpdates +
+                ", drawTimeNanos=" + drawTimeNanos +
+                ", animatorUpdateTimeNanos=" + animatorUpdateTimeNanos +
+                '}';
+    }
+}
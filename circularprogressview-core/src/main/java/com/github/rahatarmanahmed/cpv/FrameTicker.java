@@ -0,0 +1,239 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * Drives the indeterminate animation of any number of clients, and any other animation posting a {@link FrameCallback},
+ * from one frame callback.
+ * Clients with the same timing and start time form a group whose arc is computed once per frame and handed to all of them.
+ * Clients that synchronize their phase all start at {@link #SYNCHRONIZED_START}, so they share a group and never drift apart.
+ * Frames come from a {@link FrameSource}, the display's on Android or a {@link VirtualClock}'s in tests.
+ * Must only be used from the thread frames arrive on.
+ */
+final class FrameTicker {
+
+    /** The start time of every phase-synchronized client. */
+    static final long SYNCHRONIZED_START = 0;
+
+    interface Client {
+        /**
+         * Called once per frame with the arc shared by the client's group. The arc must not be modified or kept.
+         */
+        void onFrame(float cycleFraction, IndeterminateArc arc);
+
+        /**
+         * Called when a new loop of the animation begins, before that frame's onFrame.
+         */
+        void onLoop();
+    }
+
+    /**
+     * An animation that is not a loop of the indeterminate arc, such as a progress animation.
+     */
+    interface FrameCallback {
+        /**
+         * Called once per frame while the callback is posted, after the clients.
+         * @param frameTime the time of the frame in milliseconds
+         */
+        void doFrame(long frameTime);
+    }
+
+    /**
+     * Where the ticker's frames come from.
+     */
+    interface FrameSource {
+        /**
+         * Calls {@link FrameTicker#doFrame(long)} of the ticker once, at the next frame.
+         */
+        void postFrame(FrameTicker ticker);
+
+        /**
+         * @return the current animation time in milliseconds, on the same clock as the frame times
+         */
+        long now();
+    }
+
+    private final FrameSource source;
+    // Replaced on every change, so clients can register and unregister from their callbacks
+    private Group[] groups = new Group[0];
+    private FrameCallback[] callbacks = new FrameCallback[0];
+    private boolean ticking;
+    private long lastFrameTime = -1;
+
+    FrameTicker(FrameSource source) {
+        this.source = source;
+    }
+
+    /**
+     * @return the time of the current frame, or the current animation time between frames, in milliseconds
+     */
+    long now() {
+        return ticking && lastFrameTime >= 0 ? lastFrameTime : source.now();
+    }
+
+    /**
+     * @return true if frames are being requested from the source
+     */
+    boolean isTicking() {
+        return ticking;
+    }
+
+    /**
+     * Starts calling a client every frame. Does nothing if it is already registered.
+     * @param cycleDuration the duration of one loop of the client's animation
+     * @param animSteps the number of steps in one loop
+     * @param startTime the time the client's first loop started
+     */
+    void register(Client client, long cycleDuration, int animSteps, long startTime) {
+        for(Group group : groups) {
+            if(group.indexOf(client) >= 0)
+                return;
+        }
+        for(Group group : groups) {
+            if(group.cycleDuration == cycleDuration && group.animSteps == animSteps && group.startTime == startTime) {
+                group.add(client);
+                return;
+            }
+        }
+        Group group = new Group(cycleDuration, animSteps, startTime);
+        group.add(client);
+        Group[] newGroups = new Group[groups.length + 1];
+        System.arraycopy(groups, 0, newGroups, 0, groups.length);
+        newGroups[groups.length] = group;
+        groups = newGroups;
+        startTicking();
+    }
+
+    /**
+     * Stops calling a client. Does nothing if it isn't registered.
+     */
+    void unregister(Client client) {
+        for(int i = 0; i < groups.length; i++) {
+            Group group = groups[i];
+            if(group.remove(client)) {
+                if(group.clients.length == 0) {
+                    Group[] newGroups = new Group[groups.length - 1];
+                    System.arraycopy(groups, 0, newGroups, 0, i);
+                    System.arraycopy(groups, i + 1, newGroups, i, groups.length - i - 1);
+                    groups = newGroups;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts calling a frame callback every frame, until it is removed. Does nothing if it is already posted.
+     */
+    void addFrameCallback(FrameCallback callback) {
+        for(FrameCallback posted : callbacks) {
+            if(posted == callback)
+                return;
+        }
+        FrameCallback[] newCallbacks = new FrameCallback[callbacks.length + 1];
+        System.arraycopy(callbacks, 0, newCallbacks, 0, callbacks.length);
+        newCallbacks[callbacks.length] = callback;
+        callbacks = newCallbacks;
+        startTicking();
+    }
+
+    /**
+     * Stops calling a frame callback. Does nothing if it isn't posted.
+     */
+    void removeFrameCallback(FrameCallback callback) {
+        for(int i = 0; i < callbacks.length; i++) {
+            if(callbacks[i] == callback) {
+                FrameCallback[] newCallbacks = new FrameCallback[callbacks.length - 1];
+                System.arraycopy(callbacks, 0, newCallbacks, 0, i);
+                System.arraycopy(callbacks, i + 1, newCallbacks, i, callbacks.length - i - 1);
+                callbacks = newCallbacks;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ticks every group and frame callback for a frame, and asks for the next frame while any of them is left.
+     * Only called by the frame source.
+     * @param frameTime the time of the frame in milliseconds
+     */
+    void doFrame(long frameTime) {
+        Group[] groups = this.groups;
+        FrameCallback[] callbacks = this.callbacks;
+        if(groups.length == 0 && callbacks.length == 0) {
+            // The last client left since the previous frame
+            ticking = false;
+            return;
+        }
+        lastFrameTime = frameTime;
+        for(Group group : groups)
+            group.tick(frameTime);
+        for(FrameCallback callback : callbacks)
+            callback.doFrame(frameTime);
+        source.postFrame(this);
+    }
+
+    private void startTicking()
+    {
+        if(ticking)
+            return;
+        ticking = true;
+        lastFrameTime = -1;
+        source.postFrame(this);
+    }
+
+    // Clients whose animations are in the exact same phase
+    private static final class Group {
+        final long cycleDuration, startTime;
+        final int animSteps;
+        final IndeterminateArc arc = new IndeterminateArc();
+        Client[] clients = new Client[0];
+        long loop = -1;
+
+        Group(long cycleDuration, int animSteps, long startTime) {
+            this.cycleDuration = cycleDuration;
+            this.animSteps = animSteps;
+            this.startTime = startTime;
+        }
+
+        void tick(long frameTime) {
+            long elapsed = Math.max(0, frameTime - startTime);
+            long loop = cycleDuration > 0 ? elapsed / cycleDuration : 0;
+            float cycleFraction = cycleDuration > 0 ? (float) (elapsed % cycleDuration) / cycleDuration : 0;
+            boolean looped = this.loop >= 0 && loop != this.loop;
+            this.loop = loop;
+            arc.set(cycleFraction, animSteps);
+
+            Client[] clients = this.clients;
+            for(int i = 0; i < clients.length; i++) {
+                if(looped)
+                    clients[i].onLoop();
+                clients[i].onFrame(cycleFraction, arc);
+            }
+        }
+
+        int indexOf(Client client) {
+            for(int i = 0; i < clients.length; i++) {
+                if(clients[i] == client)
+                    return i;
+            }
+            return -1;
+        }
+
+        void add(Client client) {
+            Client[] newClients = new Client[clients.length + 1];
+            System.arraycopy(clients, 0, newClients, 0, clients.length);
+            newClients[clients.length] = client;
+            clients = newClients;
+        }
+
+        boolean remove(Client client) {
+            int index = indexOf(client);
+            if(index < 0)
+                return false;
+            Client[] newClients = new Client[clients.length - 1];
+            System.arraycopy(clients, 0, newClients, 0, index);
+            System.arraycopy(clients, index + 1, newClients, index, clients.length - index - 1);
+            clients = newClients;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * Closed-form state of the indeterminate animation.
+ * The arc for any point in the loop is computed directly from the loop fraction,
+ * so it can be shared between views, drawables and anything that pre-renders frames.
+ */
+public final class IndeterminateArc {
+
+    /** The smallest sweep of the arc, in degrees. */
+    public static final float MIN_SWEEP = 15f;
+
+    /** The start angle of the arc, before the overall rotation is added. */
+    public float startAngle;
+    /** The sweep of the arc, in degrees. */
+    public float sweep;
+    /** The overall rotation of the arc, in degrees. */
+    public float rotateOffset;
+
+    /**
+     * Duration of one full loop of the indeterminate animation (all steps).
+     * Each step is made of two halves, matching the original per-step animators.
+     * @param animDuration the configured duration of all steps, in milliseconds
+     * @param animSteps the number of steps in one loop
+     * @return the duration of one loop, in milliseconds
+     */
+    public static long cycleDuration(int animDuration, int animSteps) {
+        return 2L * animSteps * (animDuration / animSteps / 2);
+    }
+
+    /**
+     * Computes the arc for the given point in the loop.
+     * Each step first extends the front of the arc, then retracts the back end,
+     * while the whole arc keeps rotating at a constant rate.
+     * @param cycleFraction the point in the loop, in [0, 1]
+     * @param animSteps the number of steps in one loop
+     */
+    public void set(float cycleFraction, int animSteps) {
+        final float maxSweep = 360f*(animSteps-1)/animSteps + MIN_SWEEP;
+        final float stepSweep = maxSweep - MIN_SWEEP;
+
+        float stepPosition = cycleFraction * animSteps;
+        int step = Math.min((int) stepPosition, animSteps - 1);
+        float stepFraction = stepPosition - step;
+        float start = -90f + step*stepSweep;
+
+        if(stepFraction < .5f) {
+            // Extending the front of the arc
+            sweep = MIN_SWEEP + stepSweep*decelerate(stepFraction * 2f);
+            startAngle = start;
+        }
+        else {
+            // Retracting the back end of the arc
+            float retract = stepSweep*decelerate(stepFraction * 2f - 1f);
+            startAngle = start + retract;
+            sweep = maxSweep - retract;
+        }
+
+        // Overall rotation
+        rotateOffset = stepPosition*720f/animSteps;
+    }
+
+    // Same curve as DecelerateInterpolator(1)
+    private static float decelerate(float input) {
+        return 1f - (1f - input) * (1f - input);
+    }
+}
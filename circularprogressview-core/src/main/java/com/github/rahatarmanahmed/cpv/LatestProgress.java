@@ -0,0 +1,51 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands the latest progress published from any number of threads to a listener on an executor, such as one that
+ * runs tasks at the next animation frame. Publishing never locks: the value is swapped in atomically, and a delivery
+ * is only scheduled when none is pending, so however many values are published between two deliveries,
+ * the listener gets one onProgressUpdate with the last of them.
+ * Values are kept as doubles, and listeners that implement {@link PreciseProgressListener} receive them exactly.
+ * <p>
+ * The executor must run every task it is given; a dropped delivery would stop all later ones.
+ */
+public final class LatestProgress {
+
+    private final CircularProgressViewListener listener;
+    private final Executor executor;
+    // Latest value as double bits
+    private final AtomicLong latestBits = new AtomicLong();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+    private final Runnable deliver = new Runnable() {
+        @Override
+        public void run() {
+            // Clear the flag before reading so a value racing with us schedules another delivery
+            deliveryScheduled.set(false);
+            ListenerDispatcher.progressUpdate(listener, Double.longBitsToDouble(latestBits.get()));
+        }
+    };
+
+    /**
+     * @param listener the listener to deliver progress to, on the executor
+     * @param executor runs deliveries, such as one that posts to the next animation frame
+     */
+    public LatestProgress(CircularProgressViewListener listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    /**
+     * Publishes a new progress. Safe to call from any thread.
+     * @param progress the new progress
+     */
+    public void publish(double progress) {
+        latestBits.set(Double.doubleToLongBits(progress));
+        if(deliveryScheduled.compareAndSet(false, true))
+            executor.execute(deliver);
+    }
+}
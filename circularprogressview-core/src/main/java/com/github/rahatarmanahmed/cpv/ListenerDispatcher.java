@@ -0,0 +1,157 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Dispatches CircularProgressViewListener callbacks from an array snapshot.
+ * Adding or removing listeners copies the array, so dispatching never allocates and listeners can safely
+ * add or remove listeners (including themselves) from inside a callback; such changes apply from the next dispatch.
+ * Listeners can also be registered weakly, in which case they are dropped once they are garbage collected.
+ */
+public final class ListenerDispatcher {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    // Each entry is either a CircularProgressViewListener or a WeakReference to one
+    private volatile Object[] entries = EMPTY;
+
+    /**
+     * Registers a listener, holding it strongly. Does nothing if it is null.
+     * @param listener the listener to register
+     */
+    public synchronized void add(CircularProgressViewListener listener) {
+        if(listener == null)
+            return;
+        append(listener);
+    }
+
+    /**
+     * Registers a listener without holding a strong reference to it.
+     * It is dropped once nothing else references it. Does nothing if it is null.
+     * @param listener the listener to register
+     */
+    public synchronized void addWeak(CircularProgressViewListener listener) {
+        if(listener == null)
+            return;
+        append(new WeakReference<>(listener));
+    }
+
+    /**
+     * Unregisters a listener, whether it was registered strongly or weakly.
+     * @param listener the listener to unregister
+     */
+    public synchronized void remove(CircularProgressViewListener listener) {
+        if(listener == null)
+            return;
+        int index = indexOf(listener);
+        if(index < 0)
+            return;
+        Object[] old = entries;
+        Object[] updated = new Object[old.length - 1];
+        System.arraycopy(old, 0, updated, 0, index);
+        System.arraycopy(old, index + 1, updated, index, old.length - index - 1);
+        entries = updated;
+    }
+
+    /**
+     * @return true if no listeners are registered
+     */
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    /**
+     * Calls onProgressUpdate on every registered listener, and onPreciseProgressUpdate on those that are PreciseProgressListeners.
+     */
+    public void dispatchProgressUpdate(double currentProgress) {
+        Object[] snapshot = entries;
+        for(int i = 0; i < snapshot.length; i++) {
+            CircularProgressViewListener listener = resolve(snapshot[i]);
+            if(listener != null)
+                progressUpdate(listener, currentProgress);
+        }
+    }
+
+    /**
+     * Calls onProgressUpdate on a listener, then onPreciseProgressUpdate if it is a PreciseProgressListener.
+     */
+    static void progressUpdate(CircularProgressViewListener listener, double currentProgress) {
+        listener.onProgressUpdate((float) currentProgress);
+        if(listener instanceof PreciseProgressListener)
+            ((PreciseProgressListener) listener).onPreciseProgressUpdate(currentProgress);
+    }
+
+    /**
+     * Calls onProgressUpdateEnd on every registered listener, and onPreciseProgressUpdateEnd on those that are PreciseProgressListeners.
+     */
+    public void dispatchProgressUpdateEnd(double currentProgress) {
+        Object[] snapshot = entries;
+        for(int i = 0; i < snapshot.length; i++) {
+            CircularProgressViewListener listener = resolve(snapshot[i]);
+            if(listener != null) {
+                listener.onProgressUpdateEnd((float) currentProgress);
+                if(listener instanceof PreciseProgressListener)
+                    ((PreciseProgressListener) listener).onPreciseProgressUpdateEnd(currentProgress);
+            }
+        }
+    }
+
+    /**
+     * Calls onAnimationReset on every registered listener.
+     */
+    public void dispatchAnimationReset() {
+        Object[] snapshot = entries;
+        for(int i = 0; i < snapshot.length; i++) {
+            CircularProgressViewListener listener = resolve(snapshot[i]);
+            if(listener != null)
+                listener.onAnimationReset();
+        }
+    }
+
+    /**
+     * Calls onModeChanged on every registered listener.
+     */
+    public void dispatchModeChanged(boolean isIndeterminate) {
+        Object[] snapshot = entries;
+        for(int i = 0; i < snapshot.length; i++) {
+            CircularProgressViewListener listener = resolve(snapshot[i]);
+            if(listener != null)
+                listener.onModeChanged(isIndeterminate);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CircularProgressViewListener resolve(Object entry) {
+        if(entry instanceof WeakReference)
+            return ((WeakReference<CircularProgressViewListener>) entry).get();
+        return (CircularProgressViewListener) entry;
+    }
+
+    // Index of the listener's first entry, or -1. Must hold the lock.
+    private int indexOf(CircularProgressViewListener listener) {
+        Object[] snapshot = entries;
+        for(int i = 0; i < snapshot.length; i++) {
+            if(resolve(snapshot[i]) == listener)
+                return i;
+        }
+        return -1;
+    }
+
+    // Adds an entry, dropping weak entries whose listener was collected. Must hold the lock.
+    private void append(Object entry) {
+        Object[] old = entries;
+        int live = 0;
+        for(Object e : old) {
+            if(resolve(e) != null)
+                live++;
+        }
+        Object[] updated = new Object[live + 1];
+        int i = 0;
+        for(Object e : old) {
+            if(resolve(e) != null)
+                updated[i++] = e;
+        }
+        updated[i] = entry;
+        entries = updated;
+    }
+}
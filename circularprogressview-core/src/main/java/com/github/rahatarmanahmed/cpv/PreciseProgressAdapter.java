@@ -0,0 +1,17 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * This class implements PreciseProgressListener. Use this if you don't want to implement all methods for the listener.
+ */
+public class PreciseProgressAdapter extends CircularProgressViewAdapter implements PreciseProgressListener {
+
+    @Override
+    public void onPreciseProgressUpdate(double currentProgress) {
+
+    }
+
+    @Override
+    public void onPreciseProgressUpdateEnd(double currentProgress) {
+
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * A CircularProgressViewListener that also receives progress as doubles, for progress such as byte counts that
+ * goes beyond the roughly 16 million integers a float holds exactly. Doubles hold every integer up to 2^53.
+ * These are called in addition to the float callbacks, right after them.
+ */
+public interface PreciseProgressListener extends CircularProgressViewListener {
+    /**
+     * Called with the exact progress whenever onProgressUpdate is called.
+     *
+     * @param currentProgress The progress that was set.
+     */
+    void onPreciseProgressUpdate(double currentProgress);
+
+    /**
+     * Called with the exact progress whenever onProgressUpdateEnd is called.
+     *
+     * @param currentProgress The progress that was set and this view has reached in its animation.
+     */
+    void onPreciseProgressUpdateEnd(double currentProgress);
+}
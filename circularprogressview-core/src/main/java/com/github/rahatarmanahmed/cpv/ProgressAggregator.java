@@ -0,0 +1,161 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Combines the progress of many parts of a job, each reported by its own worker thread, into one progress.
+ * Each part has its own weight and maximum, and its progress is kept in its own cache line, so workers never
+ * contend with each other or take a lock. Parts are only summed when the combined progress is collected,
+ * typically once per frame by the view showing it, no matter how often workers report.
+ * <p>
+ * The listener is told about a change at most once between two calls to {@link #collect()}, so a burst of reports
+ * from every worker costs one notification.
+ */
+public final class ProgressAggregator {
+
+    /**
+     * Told when a part's progress changed since the combined progress was last collected.
+     */
+    public interface Listener {
+        /**
+         * Called on the reporting worker's thread, at most once until the next {@link #collect()}.
+         * @param aggregator the aggregator whose progress changed
+         */
+        void onProgressChanged(ProgressAggregator aggregator);
+    }
+
+    // Longs per part, so each part's progress has a 64 byte cache line to itself
+    private static final int STRIDE = 8;
+
+    // The progress of each part as double bits, at part * STRIDE
+    private final AtomicLongArray progress;
+    private final float[] weights;
+    private final float[] maxProgress;
+    private final double totalWeight;
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private volatile Listener listener;
+
+    /**
+     * Creates an aggregator of equally weighted parts.
+     * @param parts the number of parts
+     * @param maxProgress the progress of a complete part
+     */
+    public ProgressAggregator(int parts, float maxProgress) {
+        this(fill(parts, 1f), fill(parts, maxProgress));
+    }
+
+    /**
+     * @param weights the weight of each part in the combined progress, such as its size
+     * @param maxProgress the progress of each complete part
+     */
+    public ProgressAggregator(float[] weights, float[] maxProgress) {
+        if(weights.length != maxProgress.length)
+            throw new IllegalArgumentException("Got " + weights.length + " weights for " + maxProgress.length + " parts");
+        this.weights = weights.clone();
+        this.maxProgress = maxProgress.clone();
+        double total = 0;
+        for(float weight : weights)
+            total += weight;
+        totalWeight = total;
+        progress = new AtomicLongArray(weights.length * STRIDE);
+    }
+
+    /**
+     * @param listener the listener told about changes, or null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the number of parts
+     */
+    public int getPartCount() {
+        return weights.length;
+    }
+
+    /**
+     * Sets the progress of a part. Cheapest when each part is only reported by one thread.
+     * @param part the index of the part
+     * @param value the progress of the part
+     */
+    public void set(int part, double value) {
+        // A volatile write, so the check of the changed flag that follows can't see a value older than it
+        progress.set(part * STRIDE, Double.doubleToRawLongBits(value));
+        notifyChanged();
+    }
+
+    /**
+     * Adds to the progress of a part. Safe for parts reported by several threads.
+     * @param part the index of the part
+     * @param delta the progress to add
+     */
+    public void add(int part, double delta) {
+        int index = part * STRIDE;
+        long bits;
+        do {
+            bits = progress.get(index);
+        } while(!progress.compareAndSet(index, bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + delta)));
+        notifyChanged();
+    }
+
+    /**
+     * @param part the index of the part
+     * @return the progress of the part
+     */
+    public double get(int part) {
+        return Double.longBitsToDouble(progress.get(part * STRIDE));
+    }
+
+    /**
+     * Sums the parts into the combined progress, with each part clamped to its maximum.
+     * @return the combined progress, from 0 to 1
+     */
+    public float getFraction() {
+        if(totalWeight <= 0)
+            return 0;
+        double sum = 0;
+        for(int i = 0; i < weights.length; i++) {
+            double fraction = Double.longBitsToDouble(progress.get(i * STRIDE)) / maxProgress[i];
+            sum += weights[i] * (fraction < 0 ? 0 : fraction > 1 ? 1 : fraction);
+        }
+        return (float) (sum / totalWeight);
+    }
+
+    /**
+     * Sums the parts like {@link #getFraction()}, and lets the listener be told about the next change.
+     * @return the combined progress, from 0 to 1
+     */
+    public float collect() {
+        // Clear the flag before summing so a report racing with us notifies again
+        changed.set(false);
+        return getFraction();
+    }
+
+    /**
+     * Sets the progress of every part back to 0.
+     */
+    public void reset() {
+        for(int i = 0; i < weights.length; i++)
+            progress.set(i * STRIDE, 0);
+        notifyChanged();
+    }
+
+    private void notifyChanged()
+    {
+        // Checking first keeps the flag's cache line shared between workers while a change is pending
+        if(changed.get() || !changed.compareAndSet(false, true))
+            return;
+        Listener listener = this.listener;
+        if(listener != null)
+            listener.onProgressChanged(this);
+    }
+
+    private static float[] fill(int length, float value) {
+        float[] values = new float[length];
+        Arrays.fill(values, value);
+        return values;
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Counts the bytes moved through NIO channels into a {@link TransferProgress}.
+ * Wrapped channels pass buffers straight through and count once per call. A wrapped channel is no longer
+ * a FileChannel though, so file transfers should use {@link #transferTo(FileChannel, long, long, WritableByteChannel, TransferProgress)}
+ * and {@link #transferFrom(ReadableByteChannel, FileChannel, long, long, TransferProgress)}, which keep the
+ * zero-copy FileChannel transfers and count what each chunk moved.
+ */
+public final class ProgressChannels {
+
+    /** The most bytes moved by one FileChannel transfer call, so progress is published while a large file is transferred. */
+    public static final long TRANSFER_CHUNK_BYTES = 1024 * 1024;
+
+    private ProgressChannels() {}
+
+    /**
+     * @param channel the channel to read from
+     * @param progress the progress to count the read bytes into
+     * @return a channel reading from the given one
+     */
+    public static ReadableByteChannel readable(ReadableByteChannel channel, TransferProgress progress) {
+        return new CountingReadableChannel(channel, progress);
+    }
+
+    /**
+     * @param channel the channel to write to
+     * @param progress the progress to count the written bytes into
+     * @return a channel writing to the given one
+     */
+    public static WritableByteChannel writable(WritableByteChannel channel, TransferProgress progress) {
+        return new CountingWritableChannel(channel, progress);
+    }
+
+    /**
+     * Transfers bytes from a file to a channel with FileChannel.transferTo, counting them as they go.
+     * @param source the file to read from
+     * @param position the position in the file to start at
+     * @param count the number of bytes to transfer
+     * @param target the channel to write to, which should not be wrapped so the transfer can stay zero-copy
+     * @param progress the progress to count the transferred bytes into
+     * @return the number of bytes transferred, less than count if the file ended first
+     */
+    public static long transferTo(FileChannel source, long position, long count, WritableByteChannel target,
+                                  TransferProgress progress) throws IOException {
+        long transferred = 0;
+        while(transferred < count) {
+            long moved = source.transferTo(position + transferred, Math.min(count - transferred, TRANSFER_CHUNK_BYTES), target);
+            if(moved <= 0)
+                break;
+            transferred += moved;
+            progress.add(moved);
+        }
+        return transferred;
+    }
+
+    /**
+     * Transfers bytes from a channel to a file with FileChannel.transferFrom, counting them as they go.
+     * @param source the channel to read from, which should not be wrapped so the transfer can stay zero-copy
+     * @param target the file to write to
+     * @param position the position in the file to start at
+     * @param count the number of bytes to transfer
+     * @param progress the progress to count the transferred bytes into
+     * @return the number of bytes transferred, less than count if the source ended first
+     */
+    public static long transferFrom(ReadableByteChannel source, FileChannel target, long position, long count,
+                                    TransferProgress progress) throws IOException {
+        long transferred = 0;
+        while(transferred < count) {
+            long moved = target.transferFrom(source, position + transferred, Math.min(count - transferred, TRANSFER_CHUNK_BYTES));
+            if(moved <= 0)
+                break;
+            transferred += moved;
+            progress.add(moved);
+        }
+        return transferred;
+    }
+
+    private static final class CountingReadableChannel implements ReadableByteChannel {
+        private final ReadableByteChannel channel;
+        private final TransferProgress progress;
+
+        CountingReadableChannel(ReadableByteChannel channel, TransferProgress progress) {
+            this.channel = channel;
+            this.progress = progress;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int count = channel.read(dst);
+            if(count > 0)
+                progress.add(count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class CountingWritableChannel implements WritableByteChannel {
+        private final WritableByteChannel channel;
+        private final TransferProgress progress;
+
+        CountingWritableChannel(WritableByteChannel channel, TransferProgress progress) {
+            this.channel = channel;
+            this.progress = progress;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int count = channel.write(src);
+            if(count > 0)
+                progress.add(count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that counts the bytes read from another stream into a {@link TransferProgress}.
+ * Bulk reads go straight to the wrapped stream with no extra copy, and are counted once per call,
+ * so wrapping adds no per-byte work. Skipped bytes count as transferred, and {@link #reset()} rewinds the count to the mark.
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+    private final TransferProgress progress;
+    private long markedBytes;
+
+    /**
+     * @param in the stream to read from
+     * @param progress the progress to count the read bytes into
+     */
+    public ProgressInputStream(InputStream in, TransferProgress progress) {
+        super(in);
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if(b >= 0)
+            progress.add(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = in.read(b, off, len);
+        if(count > 0)
+            progress.add(count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long count = in.skip(n);
+        if(count > 0)
+            progress.add(count);
+        return count;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        in.mark(readlimit);
+        markedBytes = progress.getBytes();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        in.reset();
+        progress.set(markedBytes);
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An OutputStream that counts the bytes written to another stream into a {@link TransferProgress}.
+ * Unlike FilterOutputStream, bulk writes are passed to the wrapped stream whole instead of byte by byte,
+ * and are counted once per call, so wrapping adds no per-byte work.
+ */
+public class ProgressOutputStream extends FilterOutputStream {
+
+    private final TransferProgress progress;
+
+    /**
+     * @param out the stream to write to
+     * @param progress the progress to count the written bytes into
+     */
+    public ProgressOutputStream(OutputStream out, TransferProgress progress) {
+        super(out);
+        this.progress = progress;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        progress.add(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        progress.add(len);
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * A critically damped spring that smooths the determinate progress towards its latest target.
+ * Unlike {@link ProgressTween}, retargeting keeps the current velocity, so a steady stream of updates
+ * produces steady motion whatever rate they arrive at, and the lag behind the target only depends on
+ * the smoothing duration. Each step is solved exactly, so irregular frame times don't affect stability.
+ * Progress is kept as a double, so large values such as byte counts come to rest exactly on their target.
+ */
+public final class ProgressSpring {
+
+    // A critically damped spring released from rest is within 1% of its target after this many time constants
+    private static final double SETTLE_TIME_CONSTANTS = 6.64;
+
+    private double position, velocity, target;
+    // Natural frequency, per millisecond
+    private double omega;
+    private long smoothingDuration;
+    private double restThreshold = .01;
+
+    public ProgressSpring() {
+        setSmoothingDuration(500);
+    }
+
+    /**
+     * Sets how responsive the spring is: roughly how long it takes to come to rest after a jump in progress.
+     * @param smoothingDuration the duration in milliseconds, 0 to follow the target immediately
+     */
+    public void setSmoothingDuration(long smoothingDuration) {
+        this.smoothingDuration = smoothingDuration;
+        omega = smoothingDuration > 0 ? SETTLE_TIME_CONSTANTS / smoothingDuration : 0;
+    }
+
+    /**
+     * @return roughly how long the spring takes to come to rest after a jump, in milliseconds
+     */
+    public long getSmoothingDuration() {
+        return smoothingDuration;
+    }
+
+    /**
+     * Sets how close to its target, in progress units, the spring must be to come to rest.
+     * @param restThreshold the largest distance from the target considered at rest
+     */
+    public void setRestThreshold(double restThreshold) {
+        this.restThreshold = restThreshold;
+    }
+
+    /**
+     * Moves the target, keeping the current position and velocity.
+     * @param target the progress to move towards
+     */
+    public void setTarget(double target) {
+        this.target = target;
+    }
+
+    /**
+     * @return the progress the spring is moving towards
+     */
+    public double getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the progress to show
+     */
+    public double getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the current velocity, in progress per millisecond
+     */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Puts the spring at rest at a position, which also becomes its target.
+     * @param position the progress to rest at
+     */
+    public void reset(double position) {
+        this.position = target = position;
+        velocity = 0;
+    }
+
+    /**
+     * Moves the spring straight to its target and stops it.
+     */
+    public void settle() {
+        position = target;
+        velocity = 0;
+    }
+
+    /**
+     * @return true if the spring is at its target and not moving
+     */
+    public boolean isAtRest() {
+        return position == target && velocity == 0;
+    }
+
+    /**
+     * Advances the spring.
+     * @param elapsed the time since the previous step, in milliseconds
+     * @return true if the spring is still moving
+     */
+    public boolean step(long elapsed) {
+        if(isAtRest())
+            return false;
+        if(omega == 0) {
+            settle();
+            return false;
+        }
+        if(elapsed <= 0)
+            return true;
+
+        // x(t) = target + (c1 + c2 t) e^(-omega t)
+        double c1 = position - target;
+        double c2 = velocity + omega * c1;
+        double decay = Math.exp(-omega * elapsed);
+        double offset = (c1 + c2 * elapsed) * decay;
+        position = target + offset;
+        velocity = (c2 - omega * (c1 + c2 * elapsed)) * decay;
+
+        // Rest once both the distance and the distance covered in a frame are negligible
+        if(Math.abs(offset) < restThreshold && Math.abs(velocity) * 16 < restThreshold) {
+            settle();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.Arrays;
+
+/**
+ * A map from long ids to double progress values, stored in primitive arrays so nothing is boxed.
+ * Uses open addressing with linear probing and removes entries by shifting later ones back,
+ * so lookups stay fast after any number of removals. Not thread-safe.
+ */
+public final class ProgressStore {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int size;
+    private int shift;
+
+    public ProgressStore() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize the number of entries to make room for without resizing
+     */
+    public ProgressStore(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Sets the progress of an id.
+     * @param id the id of the item
+     * @param progress the progress of the item
+     */
+    public void put(long id, double progress) {
+        int slot = slotOf(id);
+        if(used[slot]) {
+            values[slot] = progress;
+            return;
+        }
+        used[slot] = true;
+        keys[slot] = id;
+        values[slot] = progress;
+        // Keep the table at most 3/4 full
+        if(++size * 4 > keys.length * 3)
+            resize(keys.length * 2);
+    }
+
+    /**
+     * Gets the progress of an id.
+     * @param id the id of the item
+     * @param defaultValue the value to return if the id has no progress
+     * @return the progress of the item, or the default value
+     */
+    public double get(long id, double defaultValue) {
+        int slot = slotOf(id);
+        return used[slot] ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param id the id of the item
+     * @return true if the id has a progress
+     */
+    public boolean contains(long id) {
+        return used[slotOf(id)];
+    }
+
+    /**
+     * Removes the progress of an id.
+     * @param id the id of the item
+     * @return true if the id had a progress
+     */
+    public boolean remove(long id) {
+        int slot = slotOf(id);
+        if(!used[slot])
+            return false;
+        int mask = keys.length - 1;
+        // Shift back later entries of the probe run that would no longer be reachable
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while(used[next]) {
+            int home = hash(keys[next]);
+            // Move the entry unless its home slot lies cyclically in (hole, next]
+            if(((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the number of ids with a progress
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every progress.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // The slot holding the id, or the empty slot where it would go
+    private int slotOf(long id) {
+        int mask = keys.length - 1;
+        int slot = hash(id);
+        while(used[slot] && keys[slot] != id)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private int hash(long id) {
+        return (int) ((id * GOLDEN_RATIO) >>> shift);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while(capacity * 3 < expectedSize * 4)
+            capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bridges a reactive stream of progress values to a {@link CircularProgressViewListener}, with the same methods
+ * as a java.util.concurrent.Flow or Reactive Streams subscriber, so adapting one is a few lines.
+ * <p>
+ * Items are requested one at a time, and the next one only after the previous one was delivered on the frame
+ * executor, so a fast publisher is held back to the frame rate instead of flooding the UI thread. If items still
+ * arrive faster, only the latest one is delivered.
+ * <p>
+ * A NaN or negative item means the progress is unknown and switches the listener to indeterminate mode;
+ * any other item switches it back to determinate. The listener is indeterminate from subscription until the first item.
+ * Items are kept as doubles, and listeners that implement {@link PreciseProgressListener} receive them exactly.
+ */
+public class ProgressSubscriber {
+
+    /**
+     * The subscriber's handle on its publisher, like Flow.Subscription.
+     */
+    public interface Subscription {
+        void request(long n);
+        void cancel();
+    }
+
+    private static final long UNKNOWN = Double.doubleToLongBits(Double.NaN);
+
+    private final CircularProgressViewListener listener;
+    private final Executor frameExecutor;
+
+    private volatile Subscription subscription;
+    private volatile boolean done;
+    // Latest item not delivered yet, as double bits
+    private final AtomicLong latestBits = new AtomicLong(UNKNOWN);
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+    // True while an item is requested and hasn't arrived yet
+    private final AtomicBoolean itemRequested = new AtomicBoolean();
+    // What the listener was last given; only touched by deliveries
+    private Boolean deliveredIndeterminate;
+
+    private final Runnable deliver = new Runnable() {
+        @Override
+        public void run() {
+            // Clear the flag before reading so an item racing with us schedules another delivery
+            deliveryScheduled.set(false);
+            double progress = Double.longBitsToDouble(latestBits.get());
+            boolean indeterminate = !(progress >= 0);
+            if(deliveredIndeterminate == null || deliveredIndeterminate != indeterminate) {
+                deliveredIndeterminate = indeterminate;
+                listener.onModeChanged(indeterminate);
+            }
+            if(!indeterminate)
+                ListenerDispatcher.progressUpdate(listener, progress);
+            requestNext();
+        }
+    };
+
+    /**
+     * @param listener the listener to deliver progress and mode changes to, on the frame executor
+     * @param frameExecutor runs deliveries, such as one that posts to the next animation frame
+     */
+    public ProgressSubscriber(CircularProgressViewListener listener, Executor frameExecutor) {
+        this.listener = listener;
+        this.frameExecutor = frameExecutor;
+    }
+
+    /**
+     * Starts receiving items, showing an indeterminate progress until the first one.
+     * @param subscription the publisher's subscription
+     */
+    public void onSubscribe(Subscription subscription) {
+        if(this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        latestBits.set(UNKNOWN);
+        schedule();
+    }
+
+    /**
+     * @param progress the new progress, or NaN or a negative value if the progress is unknown
+     */
+    public void onNext(Number progress) {
+        latestBits.set(Double.doubleToLongBits(progress.doubleValue()));
+        itemRequested.set(false);
+        schedule();
+    }
+
+    /**
+     * Stops requesting items. The listener keeps the last delivered progress.
+     */
+    public void onError(Throwable error) {
+        done = true;
+    }
+
+    /**
+     * Stops requesting items. The listener keeps the last delivered progress.
+     */
+    public void onComplete() {
+        done = true;
+    }
+
+    /**
+     * Cancels the subscription, for example when the view showing the progress goes away.
+     */
+    public void cancel() {
+        done = true;
+        Subscription subscription = this.subscription;
+        if(subscription != null)
+            subscription.cancel();
+    }
+
+    private void schedule()
+    {
+        if(deliveryScheduled.compareAndSet(false, true))
+            frameExecutor.execute(deliver);
+    }
+
+    private void requestNext()
+    {
+        Subscription subscription = this.subscription;
+        if(subscription != null && !done && itemRequested.compareAndSet(false, true))
+            subscription.request(1);
+    }
+}
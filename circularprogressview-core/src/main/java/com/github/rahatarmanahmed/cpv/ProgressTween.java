@@ -0,0 +1,55 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * The linear determinate progress animation, without any animator attached.
+ * One tween is reused for every progress update: it is retargeted from the currently shown progress,
+ * and retargets made before the animation advances past its start only move the target,
+ * so a burst of updates within one frame costs a single restart. Progress is kept as a double, so large values
+ * such as byte counts animate between exact endpoints.
+ */
+public final class ProgressTween {
+
+    private double from, to;
+    private boolean retargetPending;
+
+    /**
+     * Moves the target of the animation.
+     * @param current the progress currently shown
+     * @param target the new progress to animate to
+     * @return true if the animation must restart from the beginning, false if only the target moved
+     */
+    public boolean retarget(double current, double target) {
+        to = target;
+        if(retargetPending)
+            return false;
+        from = current;
+        retargetPending = true;
+        return true;
+    }
+
+    /**
+     * Returns the progress at the given point of the animation.
+     * @param fraction the point in the animation, in [0, 1]
+     * @return the progress to show
+     */
+    public double valueAt(float fraction) {
+        // Once the animation has moved past the start, later targets need a fresh restart
+        if(fraction > 0f)
+            retargetPending = false;
+        return from + (to - from) * fraction;
+    }
+
+    /**
+     * Marks the animation as no longer running, so the next retarget restarts it.
+     */
+    public void settle() {
+        retargetPending = false;
+    }
+
+    /**
+     * @return the progress this tween is animating to
+     */
+    public double getTarget() {
+        return to;
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * Decides whether an animation frame of the arc is worth redrawing. A frame is skipped if it comes sooner than
+ * the frame-rate cap allows, or if neither end of the arc moved by at least the threshold since it was last drawn.
+ * Redraws under the cap are due at deadlines one cap interval apart, each following the last rather than the frame
+ * that met it, so the cap holds on displays of any refresh rate. Frames are a little jittery, so a frame up to half
+ * a frame interval before a deadline still meets it.
+ * Applied to every frame of the {@link ArcAnimation} that CircularProgressDrawable and {@link ArcSimulation} both run,
+ * so simulated redraws match the real ones.
+ */
+public final class RedrawFilter {
+
+    /** The default minimum movement of the arc's ends, in pixels. */
+    public static final float DEFAULT_THRESHOLD = .5f;
+
+    private float threshold = DEFAULT_THRESHOLD;
+    private int maxFrameRate;
+    // When the next redraw is due under the cap, valid once a redraw was made
+    private boolean hasRedrawn;
+    private double nextRedrawTime;
+    // The time of the last frame seen, or -1 before the first one, and the interval before it
+    private long lastFrameTime = -1;
+    private long frameInterval;
+
+    /**
+     * @return the minimum movement of the arc's ends, in pixels
+     */
+    public float getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @param threshold the minimum movement of the arc's ends, in pixels, or 0 to redraw any movement
+     */
+    public void setThreshold(float threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the maximum number of redraws per second, or 0 if uncapped
+     */
+    public int getMaxFrameRate() {
+        return maxFrameRate;
+    }
+
+    /**
+     * @param maxFrameRate the maximum number of redraws per second, or 0 for no cap
+     */
+    public void setMaxFrameRate(int maxFrameRate) {
+        this.maxFrameRate = Math.max(0, maxFrameRate);
+    }
+
+    /**
+     * Decides whether a frame should be redrawn, and if so counts it as the latest redraw.
+     * @param now the time of the frame in milliseconds
+     * @param radius the radius of the arc in pixels
+     * @return true if the frame should be redrawn
+     */
+    public boolean accept(long now, float radius, float drawnStart, float drawnSweep, float start, float sweep) {
+        observeFrame(now);
+        if(maxFrameRate > 0 && hasRedrawn) {
+            double period = 1000.0 / maxFrameRate;
+            if(now < nextRedrawTime - Math.min(frameInterval, period) / 2)
+                return false;
+        }
+        if(threshold > 0f && ArcGeometry.movedLessThan(radius, drawnStart, drawnSweep, start, sweep, threshold))
+            return false;
+        onRedraw(now);
+        return true;
+    }
+
+    /**
+     * Counts a redraw that was made regardless of the filter, such as the final frame of an animation.
+     * @param now the time of the frame in milliseconds
+     */
+    public void onForcedRedraw(long now) {
+        observeFrame(now);
+        onRedraw(now);
+    }
+
+    /**
+     * Forgets the last redraw, so the frame-rate cap starts over, e.g. when frame times start coming from another clock.
+     */
+    public void reset() {
+        hasRedrawn = false;
+        lastFrameTime = -1;
+        frameInterval = 0;
+    }
+
+    private void observeFrame(long now)
+    {
+        if(lastFrameTime >= 0 && now > lastFrameTime)
+            frameInterval = now - lastFrameTime;
+        lastFrameTime = now;
+    }
+
+    // Moves the deadline on by one interval, or starts over from now if it fell a whole interval behind,
+    // e.g. because the arc stood still for a while
+    private void onRedraw(long now)
+    {
+        double period = maxFrameRate > 0 ? 1000.0 / maxFrameRate : 0;
+        if(!hasRedrawn || now - nextRedrawTime >= period)
+            nextRedrawTime = now + period;
+        else
+            nextRedrawTime += period;
+        hasRedrawn = true;
+    }
+}
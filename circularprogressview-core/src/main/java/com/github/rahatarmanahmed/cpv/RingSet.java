@@ -0,0 +1,260 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.Arrays;
+
+/**
+ * The progress, look and animation state of a set of concentric progress rings.
+ * Rings are stored in parallel arrays and all advanced by a single {@link #update(long)} per frame,
+ * so any number of rings animate from one frame callback without allocating.
+ * Times are in milliseconds on whatever clock the caller uses, as long as it is the same for every call.
+ */
+public final class RingSet {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int size;
+    private long duration = 500;
+    // Shown progress, where its animation started from, where it is going and when it started
+    private double[] shown = new double[INITIAL_CAPACITY];
+    private double[] from = new double[INITIAL_CAPACITY];
+    private double[] target = new double[INITIAL_CAPACITY];
+    private long[] startTime = new long[INITIAL_CAPACITY];
+    private double[] maxProgress = new double[INITIAL_CAPACITY];
+    private int[] color = new int[INITIAL_CAPACITY];
+    private int[] thickness = new int[INITIAL_CAPACITY];
+    private int[] segments = new int[INITIAL_CAPACITY];
+    private float[] segmentGap = new float[INITIAL_CAPACITY];
+    private boolean animating;
+
+    /**
+     * Adds a ring inside the existing ones, with no progress and a single segment.
+     * @param maxProgress the progress at which the ring is full
+     * @param color the color of the ring
+     * @param thickness the thickness of the ring
+     * @return the index of the new ring
+     */
+    public int add(double maxProgress, int color, int thickness) {
+        if(size == shown.length)
+            grow();
+        int index = size++;
+        shown[index] = from[index] = target[index] = 0;
+        startTime[index] = 0;
+        this.maxProgress[index] = maxProgress;
+        this.color[index] = color;
+        this.thickness[index] = thickness;
+        segments[index] = 1;
+        segmentGap[index] = 0;
+        return index;
+    }
+
+    /**
+     * Removes a ring. Rings after it move in by one index.
+     * @param index the index of the ring to remove
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        int moved = size - index - 1;
+        System.arraycopy(shown, index + 1, shown, index, moved);
+        System.arraycopy(from, index + 1, from, index, moved);
+        System.arraycopy(target, index + 1, target, index, moved);
+        System.arraycopy(startTime, index + 1, startTime, index, moved);
+        System.arraycopy(maxProgress, index + 1, maxProgress, index, moved);
+        System.arraycopy(color, index + 1, color, index, moved);
+        System.arraycopy(thickness, index + 1, thickness, index, moved);
+        System.arraycopy(segments, index + 1, segments, index, moved);
+        System.arraycopy(segmentGap, index + 1, segmentGap, index, moved);
+        size--;
+    }
+
+    /**
+     * Removes every ring.
+     */
+    public void clear() {
+        size = 0;
+        animating = false;
+    }
+
+    /**
+     * @return the number of rings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets how long a ring takes to animate to a new progress.
+     * @param duration the duration in milliseconds
+     */
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Sets the progress a ring animates to, starting from the progress it currently shows.
+     * @param index the index of the ring
+     * @param progress the new progress
+     * @param now the current time
+     */
+    public void setProgress(int index, double progress, long now) {
+        checkIndex(index);
+        from[index] = shown[index];
+        target[index] = progress;
+        startTime[index] = now;
+        animating |= shown[index] != progress;
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the progress the ring is animating to
+     */
+    public double getProgress(int index) {
+        checkIndex(index);
+        return target[index];
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the progress the ring currently shows
+     */
+    public double getShownProgress(int index) {
+        checkIndex(index);
+        return shown[index];
+    }
+
+    /**
+     * Advances every ring's animation.
+     * @param now the current time
+     * @return true if any ring is still animating
+     */
+    public boolean update(long now) {
+        if(!animating)
+            return false;
+        boolean stillAnimating = false;
+        for(int i = 0; i < size; i++) {
+            if(shown[i] == target[i])
+                continue;
+            long elapsed = now - startTime[i];
+            if(duration <= 0 || elapsed >= duration)
+                shown[i] = target[i];
+            else {
+                shown[i] = from[i] + (target[i] - from[i]) * Math.max(0, elapsed) / duration;
+                stillAnimating = true;
+            }
+        }
+        animating = stillAnimating;
+        return stillAnimating;
+    }
+
+    /**
+     * Moves every ring straight to its target progress.
+     */
+    public void settle() {
+        for(int i = 0; i < size; i++)
+            shown[i] = target[i];
+        animating = false;
+    }
+
+    /**
+     * @return true if any ring is animating
+     */
+    public boolean isAnimating() {
+        return animating;
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the angle, in degrees, the ring's shown progress covers
+     */
+    public float getSweep(int index) {
+        checkIndex(index);
+        return ArcGeometry.sweepAngle(shown[index], maxProgress[index]);
+    }
+
+    public double getMaxProgress(int index) {
+        checkIndex(index);
+        return maxProgress[index];
+    }
+
+    public void setMaxProgress(int index, double maxProgress) {
+        checkIndex(index);
+        this.maxProgress[index] = maxProgress;
+    }
+
+    public int getColor(int index) {
+        checkIndex(index);
+        return color[index];
+    }
+
+    public void setColor(int index, int color) {
+        checkIndex(index);
+        this.color[index] = color;
+    }
+
+    public int getThickness(int index) {
+        checkIndex(index);
+        return thickness[index];
+    }
+
+    public void setThickness(int index, int thickness) {
+        checkIndex(index);
+        this.thickness[index] = thickness;
+    }
+
+    public int getSegments(int index) {
+        checkIndex(index);
+        return segments[index];
+    }
+
+    public float getSegmentGap(int index) {
+        checkIndex(index);
+        return segmentGap[index];
+    }
+
+    /**
+     * Splits a ring into equal segments separated by gaps, like a step indicator.
+     * @param index the index of the ring
+     * @param segments the number of segments, 1 for a continuous ring
+     * @param gap the gap between segments, in degrees
+     */
+    public void setSegments(int index, int segments, float gap) {
+        checkIndex(index);
+        if(segments < 1)
+            throw new IllegalArgumentException("A ring needs at least one segment, got " + segments);
+        this.segments[index] = segments;
+        segmentGap[index] = segments > 1 ? gap : 0;
+    }
+
+    /**
+     * Returns how much of one segment is filled when the ring's progress covers a given sweep.
+     * Segments start every 360/segments degrees and are that long minus the gap.
+     * @param sweep the angle the ring's progress covers
+     * @param segments the number of segments of the ring
+     * @param gap the gap between segments, in degrees
+     * @param segment the index of the segment
+     * @return the filled sweep of the segment, in degrees, between 0 and its length
+     */
+    public static float segmentSweep(float sweep, int segments, float gap, int segment) {
+        float pitch = 360f / segments;
+        float length = Math.max(0, pitch - gap);
+        float filled = sweep - segment * pitch;
+        return filled <= 0 ? 0 : Math.min(filled, length);
+    }
+
+    private void grow() {
+        int capacity = shown.length * 2;
+        shown = Arrays.copyOf(shown, capacity);
+        from = Arrays.copyOf(from, capacity);
+        target = Arrays.copyOf(target, capacity);
+        startTime = Arrays.copyOf(startTime, capacity);
+        maxProgress = Arrays.copyOf(maxProgress, capacity);
+        color = Arrays.copyOf(color, capacity);
+        thickness = Arrays.copyOf(thickness, capacity);
+        segments = Arrays.copyOf(segments, capacity);
+        segmentGap = Arrays.copyOf(segmentGap, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Ring " + index + " of " + size);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches values resolved from a theme and a style resource, so they are only resolved once per theme.
+ * Themes are held weakly, so cached values go away with their theme.
+ * Values must not reference their theme, or the theme will never be collected.
+ * <p>
+ * Themes are matched by identity, not by their contents. Views inflated with {@code android:theme} get a new
+ * ContextThemeWrapper and theme on every inflation, so they always miss and resolve everything as before;
+ * only views that share their context's theme benefit.
+ * @param <V> the type of the cached values
+ */
+public final class StyleCache<V> {
+
+    private final Map<Object, Map<Integer, V>> entries = new WeakHashMap<>();
+
+    /**
+     * Returns the value cached for a theme and style.
+     * @param theme the theme the value was resolved from
+     * @param style the style resource the value was resolved from, or 0 for none
+     * @return the cached value, or null if there is none
+     */
+    public synchronized V get(Object theme, int style) {
+        Map<Integer, V> styles = entries.get(theme);
+        return styles != null ? styles.get(style) : null;
+    }
+
+    /**
+     * Caches the value resolved from a theme and style.
+     * @param theme the theme the value was resolved from
+     * @param style the style resource the value was resolved from, or 0 for none
+     * @param value the resolved value
+     */
+    public synchronized void put(Object theme, int style, V value) {
+        Map<Integer, V> styles = entries.get(theme);
+        if(styles == null) {
+            styles = new HashMap<>(4);
+            entries.put(theme, styles);
+        }
+        styles.put(style, value);
+    }
+
+    /**
+     * Returns the number of themes with cached values.
+     * @return the number of themes still alive in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every cached value.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
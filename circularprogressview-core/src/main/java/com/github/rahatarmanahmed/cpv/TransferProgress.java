@@ -0,0 +1,94 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * Counts the bytes of a transfer and publishes them as progress to a listener, such as a
+ * {@link CircularProgressViewListener} that posts it to a view.
+ * Progress is only published each time the count crosses another step of the total, so a transfer
+ * costs at most a few hundred updates however small its reads and writes are, and counting is a single
+ * comparison per call. Nothing is published if the total is unknown.
+ * Listeners that implement {@link PreciseProgressListener} receive the progress as a double, which stays exact
+ * for byte counts beyond what a float holds.
+ * <p>
+ * Used by {@link ProgressInputStream}, {@link ProgressOutputStream} and {@link ProgressChannels}.
+ * Not thread-safe; the listener is called on the thread doing the transfer.
+ */
+public final class TransferProgress {
+
+    /** The default maximum number of updates published over a whole transfer. */
+    public static final int DEFAULT_MAX_UPDATES = 200;
+
+    private final long totalBytes;
+    private final double maxProgress;
+    private final long stepBytes;
+    private final CircularProgressViewListener listener;
+    private long bytes;
+    // The count at which the next update is published
+    private long nextUpdate;
+
+    /**
+     * @param totalBytes the size of the transfer, or a negative value if it is unknown
+     * @param maxProgress the progress published once every byte is transferred, usually the view's max progress
+     * @param listener the listener whose onProgressUpdate receives the progress
+     */
+    public TransferProgress(long totalBytes, double maxProgress, CircularProgressViewListener listener) {
+        this(totalBytes, maxProgress, DEFAULT_MAX_UPDATES, listener);
+    }
+
+    /**
+     * @param totalBytes the size of the transfer, or a negative value if it is unknown
+     * @param maxProgress the progress published once every byte is transferred, usually the view's max progress
+     * @param maxUpdates the maximum number of updates published over the whole transfer
+     * @param listener the listener whose onProgressUpdate receives the progress
+     */
+    public TransferProgress(long totalBytes, double maxProgress, int maxUpdates, CircularProgressViewListener listener) {
+        if(maxUpdates < 1)
+            throw new IllegalArgumentException("At least one update must be published, got " + maxUpdates);
+        this.totalBytes = totalBytes;
+        this.maxProgress = maxProgress;
+        this.listener = listener;
+        stepBytes = Math.max(1, totalBytes / maxUpdates);
+        nextUpdate = totalBytes > 0 ? stepBytes : Long.MAX_VALUE;
+    }
+
+    /**
+     * Counts transferred bytes, publishing the progress if it crossed another step.
+     * @param count the number of bytes transferred
+     */
+    public void add(long count) {
+        bytes += count;
+        if(bytes >= nextUpdate)
+            publish();
+    }
+
+    /**
+     * Sets the number of transferred bytes, for example when a stream is reset to a mark, and publishes it.
+     * @param count the number of bytes transferred so far
+     */
+    public void set(long count) {
+        bytes = count;
+        if(totalBytes > 0)
+            publish();
+    }
+
+    /**
+     * @return the number of bytes transferred so far
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the size of the transfer, or a negative value if it is unknown
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void publish()
+    {
+        long shown = Math.min(bytes, totalBytes);
+        // The next update is at the next step or the end, or never once the transfer is complete
+        nextUpdate = shown < totalBytes ? Math.min((shown / stepBytes + 1) * stepBytes, totalBytes) : Long.MAX_VALUE;
+        ListenerDispatcher.progressUpdate(listener, (double) shown * maxProgress / totalBytes);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * An {@link AnimationClock} that only moves when told to, so animations can be stepped through
+ * any number of frames without waiting for them in real time. It is also the frame source of the drawables using it:
+ * every time it moves forward, their animations get one frame at the new time. Not thread-safe.
+ */
+public final class VirtualClock implements AnimationClock {
+
+    private long now;
+    // Frames of the animations using this clock, posted until the clock next moves
+    private FrameTicker ticker;
+    private FrameTicker pendingFrame;
+
+    public VirtualClock() {
+    }
+
+    /**
+     * @param startTime the time to start at, in milliseconds
+     */
+    public VirtualClock(long startTime) {
+        now = startTime;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return now;
+    }
+
+    /**
+     * Moves the clock forward by one frame, running that frame of every animation using this clock.
+     * @param millis the time to move forward by, in milliseconds
+     */
+    public void advance(long millis) {
+        if(millis < 0)
+            throw new IllegalArgumentException("A clock can't go back, got " + millis);
+        now += millis;
+        FrameTicker frame = pendingFrame;
+        pendingFrame = null;
+        if(frame != null)
+            frame.doFrame(now);
+    }
+
+    /**
+     * @return the ticker whose frames this clock delivers, for the animations using it instead of the display's
+     */
+    FrameTicker getFrameTicker() {
+        if(ticker == null) {
+            ticker = new FrameTicker(new FrameTicker.FrameSource() {
+                @Override
+                public void postFrame(FrameTicker ticker) {
+                    pendingFrame = ticker;
+                }
+
+                @Override
+                public long now() {
+                    return now;
+                }
+            });
+        }
+        return ticker;
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArcGeometryTest {
+
+    private static final float CX = 50, CY = 40, RADIUS = 30;
+
+    private static float[] bounds(float start, float sweep) {
+        float[] out = new float[4];
+        ArcGeometry.computeBounds(CX, CY, RADIUS, start, sweep, out);
+        return out;
+    }
+
+    private static void assertBounds(float[] out, float left, float top, float right, float bottom) {
+        assertEquals(left, out[ArcGeometry.LEFT], 1e-3f);
+        assertEquals(top, out[ArcGeometry.TOP], 1e-3f);
+        assertEquals(right, out[ArcGeometry.RIGHT], 1e-3f);
+        assertEquals(bottom, out[ArcGeometry.BOTTOM], 1e-3f);
+    }
+
+    @Test
+    public void fullCircleCoversTheWholeOval() {
+        assertBounds(bounds(17, 360), CX - RADIUS, CY - RADIUS, CX + RADIUS, CY + RADIUS);
+        assertBounds(bounds(17, -400), CX - RADIUS, CY - RADIUS, CX + RADIUS, CY + RADIUS);
+    }
+
+    @Test
+    public void quarterFromTheTopCoversTheTopRight() {
+        // -90 is the top and 0 the right, like Canvas
+        assertBounds(bounds(-90, 90), CX, CY - RADIUS, CX + RADIUS, CY);
+    }
+
+    @Test
+    public void counterClockwiseSweepCoversTheSameArcAsItsMirror() {
+        float[] ccw = bounds(0, -90);
+        assertBounds(ccw, CX, CY - RADIUS, CX + RADIUS, CY);
+        float[] cw = bounds(-90, 90);
+        for(int i = 0; i < 4; i++)
+            assertEquals(cw[i], ccw[i], 1e-3f);
+    }
+
+    @Test
+    public void arcCrossingTheRightAxisReachesTheEdge() {
+        float[] out = bounds(-30, 60);
+        assertEquals(CX + RADIUS, out[ArcGeometry.RIGHT], 1e-3f);
+        assertEquals(CY - RADIUS / 2, out[ArcGeometry.TOP], 1e-3f);
+        assertEquals(CY + RADIUS / 2, out[ArcGeometry.BOTTOM], 1e-3f);
+    }
+
+    @Test
+    public void boundsAreTheTightBoxOfSampledPoints() {
+        Random random = new Random(18);
+        for(int i = 0; i < 2000; i++) {
+            float start = random.nextFloat() * 1440 - 720;
+            float sweep = random.nextFloat() * 718 - 359;
+            float[] out = bounds(start, sweep);
+            float left = Float.MAX_VALUE, top = Float.MAX_VALUE, right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+            for(int s = 0; s <= 2000; s++) {
+                double angle = Math.toRadians(start + sweep * s / 2000);
+                float x = CX + RADIUS * (float) Math.cos(angle), y = CY + RADIUS * (float) Math.sin(angle);
+                left = Math.min(left, x);
+                top = Math.min(top, y);
+                right = Math.max(right, x);
+                bottom = Math.max(bottom, y);
+            }
+            String arc = "start " + start + ", sweep " + sweep;
+            // Sampling can only miss a little of the curve near an axis
+            assertEquals(arc, left, out[ArcGeometry.LEFT], .01f);
+            assertEquals(arc, top, out[ArcGeometry.TOP], .01f);
+            assertEquals(arc, right, out[ArcGeometry.RIGHT], .01f);
+            assertEquals(arc, bottom, out[ArcGeometry.BOTTOM], .01f);
+        }
+    }
+
+    @Test
+    public void sweepIsTheShareOfAFullTurn() {
+        assertEquals(90f, ArcGeometry.sweepAngle(25, 100), 0f);
+        assertEquals(360f, ArcGeometry.sweepAngle(100, 100), 0f);
+        assertEquals(-36f, ArcGeometry.sweepAngle(-10, 100), 1e-4f);
+    }
+
+    @Test
+    public void preciseSweepMatchesTheFloatSweep() {
+        assertEquals(ArcGeometry.sweepAngle(25f, 100f), ArcGeometry.sweepAngle(25.0, 100.0), 0f);
+        assertEquals(ArcGeometry.sweepAngle(-10f, 100f), ArcGeometry.sweepAngle(-10.0, 100.0), 1e-4f);
+        assertEquals(360f, ArcGeometry.sweepAngle(3e9, 3e9), 0f);
+    }
+
+    @Test
+    public void preciseSweepTellsApartBytesAFloatRoundsTogether() {
+        long max = 1L << 25, bytes = 1L << 24;
+        assertEquals(ArcGeometry.sweepAngle((float) bytes, (float) max), ArcGeometry.sweepAngle((float) (bytes + 1), (float) max), 0f);
+        assertTrue(ArcGeometry.sweepAngle((double) bytes + 8, max) > ArcGeometry.sweepAngle((double) bytes, max));
+    }
+
+    @Test
+    public void preciseSweepIsMonotonicAndBoundedUpToLongMaxValue() {
+        long max = Long.MAX_VALUE;
+        assertEquals(0f, ArcGeometry.sweepAngle(0.0, max), 0f);
+        assertEquals(360f, ArcGeometry.sweepAngle((double) max, max), 0f);
+        assertEquals(180f, ArcGeometry.sweepAngle((double) (max / 2), max), 0f);
+        Random random = new Random(23);
+        long[] progress = new long[10000];
+        for(int i = 0; i < progress.length; i++)
+            progress[i] = random.nextLong() & Long.MAX_VALUE;
+        progress[0] = max - 1;
+        progress[1] = 1;
+        Arrays.sort(progress);
+        float previous = 0;
+        for(long p : progress) {
+            float sweep = ArcGeometry.sweepAngle((double) p, max);
+            assertTrue("Sweep of " + p + " went back", sweep >= previous);
+            assertTrue("Sweep of " + p + " overshot", sweep <= 360f);
+            assertEquals(p / (double) max * 360, sweep, 1e-4);
+            previous = sweep;
+        }
+    }
+
+    @Test
+    public void movementIsMeasuredAtBothEndsInPixels() {
+        // At a radius of 30 px, one degree is about .52 px
+        assertTrue(ArcGeometry.movedLessThan(30, 0, 90, .5f, 89.5f, .5f));
+        assertFalse(ArcGeometry.movedLessThan(30, 0, 90, 1f, 89f, .5f));
+        // The start stays put but the end moves
+        assertFalse(ArcGeometry.movedLessThan(30, 0, 90, 0, 91, .5f));
+    }
+}
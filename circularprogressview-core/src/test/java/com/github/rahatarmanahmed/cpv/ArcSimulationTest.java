@@ -0,0 +1,301 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArcSimulationTest {
+
+    private static final long FRAME = 16;
+
+    @Test
+    public void firstFrameIsDrawnEvenIfNothingAnimates() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.run(3, FRAME);
+        assertTrue(simulation.isRedrawn(0));
+        assertFalse(simulation.isRedrawn(1));
+        assertEquals(1, simulation.getRedrawCount());
+        assertEquals(0, simulation.getInvalidationCount());
+    }
+
+    @Test
+    public void indeterminateLoopIsRedrawnAtMostAtTheFrameRateCap() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.getRedrawFilter().setMaxFrameRate(30);
+        simulation.setIndeterminate(true);
+        simulation.run(240, FRAME);
+        assertTrue(simulation.getRedrawCount() > 100);
+        assertTrue(simulation.getRedrawCount() <= 130);
+        assertEquals(simulation.getInvalidationCount() - simulation.getSkippedCount(), simulation.getRedrawCount());
+    }
+
+    @Test
+    public void frameRateCapHoldsOnFastDisplays() {
+        for(long interval : new long[] { 8, 11 }) {
+            ArcSimulation simulation = new ArcSimulation();
+            simulation.getRedrawFilter().setThreshold(0f);
+            simulation.getRedrawFilter().setMaxFrameRate(60);
+            simulation.setIndeterminate(true);
+            simulation.run(100, interval);
+            simulation.clearFrames();
+            int frames = (int) (10000 / interval);
+            simulation.run(frames, interval);
+            double rate = simulation.getRedrawCount() * 1000.0 / (frames * interval);
+            assertTrue(interval + " ms frames redrew " + rate + " times per second", rate <= 60);
+            assertTrue(interval + " ms frames redrew " + rate + " times per second", rate >= 55);
+        }
+    }
+
+    @Test
+    public void indeterminateLoopStartsOverEveryCycle() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setIndeterminateAnimation(1200, 3);
+        simulation.setIndeterminate(true);
+        long cycle = IndeterminateArc.cycleDuration(1200, 3);
+        simulation.run((int) (2 * cycle / FRAME) + 2, FRAME);
+        assertEquals(2, simulation.getLoopCount());
+        assertTrue(simulation.isRunning());
+    }
+
+    @Test
+    public void determinateModeStartsWithTheSwoop() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setStartAngle(-90);
+        simulation.setAnimSwoopDuration(1000);
+        simulation.reset();
+        simulation.run(70, FRAME);
+
+        // The first frame starts the swoop, which decelerates to one full turn
+        assertEquals(-90f, simulation.getStart(0), 0f);
+        for(int i = 1; i < simulation.getFrameCount(); i++)
+            assertTrue("Frame " + i + " went back", simulation.getStart(i) >= simulation.getStart(i - 1));
+        assertTrue(simulation.getStart(1) - simulation.getStart(0) > simulation.getStart(60) - simulation.getStart(59));
+        assertEquals(270f, simulation.getStart(simulation.getFrameCount() - 1), 0f);
+        assertFalse(simulation.isRunning());
+    }
+
+    // Like CircularProgressView: detaching pauses a running animation, and attaching resumes it or starts again
+    private static void detachAndAttach(ArcSimulation simulation) {
+        simulation.pause();
+        simulation.run(10, FRAME);
+        if(simulation.isPaused())
+            simulation.resume();
+        else
+            simulation.start();
+    }
+
+    @Test
+    public void reattachingAfterTheIntroContinuesFromTheShownProgress() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setAnimSwoopDuration(1000);
+        simulation.setProgress(40);
+        simulation.reset();
+        assertFalse(simulation.isIntroShown());
+        simulation.run(100, FRAME);
+        assertFalse(simulation.isRunning());
+        assertTrue(simulation.isIntroShown());
+
+        for(int i = 0; i < 3; i++) {
+            simulation.clearFrames();
+            detachAndAttach(simulation);
+            simulation.run(30, FRAME);
+            // Neither the swoop nor the progress animation from 0 is replayed
+            assertFalse(simulation.isRunning());
+            for(int frame = 0; frame < simulation.getFrameCount(); frame++) {
+                assertEquals(144f, simulation.getSweep(frame), 0f);
+                assertEquals(270f, (simulation.getStart(frame) + 360) % 360, 0f);
+            }
+        }
+    }
+
+    @Test
+    public void reattachingDuringTheIntroContinuesIt() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setAnimSwoopDuration(1000);
+        simulation.reset();
+        simulation.run(20, FRAME);
+        float start = simulation.getStart(19);
+        detachAndAttach(simulation);
+        simulation.step(FRAME);
+        assertTrue(simulation.getStart(20) >= start);
+        assertTrue(simulation.getStart(20) < 270f);
+        assertFalse(simulation.isIntroShown());
+    }
+
+    @Test
+    public void startingAfterAStoppedIntroReplaysIt() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setAnimSwoopDuration(1000);
+        simulation.reset();
+        simulation.run(20, FRAME);
+        simulation.stop();
+        simulation.start();
+        simulation.step(FRAME);
+        assertEquals(-90f, simulation.getStart(20), 0f);
+        assertTrue(simulation.isRunning());
+    }
+
+    @Test
+    public void resetReplaysTheIntroEvenAfterItWasShown() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setAnimSwoopDuration(500);
+        simulation.reset();
+        simulation.run(40, FRAME);
+        assertTrue(simulation.isIntroShown());
+        simulation.reset();
+        assertFalse(simulation.isIntroShown());
+        simulation.step(FRAME);
+        assertEquals(-90f, simulation.getStart(40), 0f);
+    }
+
+    @Test
+    public void tweenReachesItsTargetAndForcesTheFinalRedraw() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setAnimSyncDuration(500);
+        // Only the forced redraw at the end gets past a threshold this large
+        simulation.getRedrawFilter().setThreshold(1000f);
+        simulation.step(FRAME);
+        simulation.setProgress(50);
+        simulation.run(40, FRAME);
+
+        assertEquals(50f, simulation.getShownProgress(), 0f);
+        assertEquals(2, simulation.getRedrawCount());
+        // The tween starts on the first frame after the update, so it ends 500 ms later, on frame 33
+        assertTrue(simulation.isRedrawn(33));
+        assertEquals(180f, simulation.getSweep(33), 0f);
+        assertEquals(32, simulation.getSkippedCount());
+        assertFalse(simulation.isRunning());
+    }
+
+    @Test
+    public void burstOfUpdatesWithinAFrameIsOneAnimation() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.step(FRAME);
+        for(int i = 1; i <= 10; i++)
+            simulation.setProgress(i * 5);
+        simulation.run(40, FRAME);
+        assertEquals(50f, simulation.getShownProgress(), 0f);
+        for(int i = 2; i < 35; i++)
+            assertTrue("Frame " + i + " went back", simulation.getSweep(i) >= simulation.getSweep(i - 1));
+    }
+
+    @Test
+    public void springComesToRestAtItsTarget() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setProgressSmoothing(true);
+        simulation.step(FRAME);
+        simulation.setProgress(80);
+        for(int i = 0; i < 1000 && simulation.isRunning(); i++)
+            simulation.step(FRAME);
+
+        assertFalse(simulation.isRunning());
+        assertEquals(80f, simulation.getShownProgress(), 100 / 2000f);
+        assertTrue(simulation.isRedrawn(simulation.getFrameCount() - 1));
+    }
+
+    @Test
+    public void progressNearLongMaxValueIsShownExactly() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setMaxProgress(Long.MAX_VALUE);
+        simulation.step(FRAME);
+        simulation.setProgress(Long.MAX_VALUE / 2);
+        simulation.run(40, FRAME);
+        assertEquals((double) (Long.MAX_VALUE / 2), simulation.getShownProgress(), 0);
+        assertEquals(180f, simulation.getSweep(simulation.getFrameCount() - 1), 0f);
+
+        simulation.setProgress(Long.MAX_VALUE);
+        simulation.run(40, FRAME);
+        assertEquals((double) Long.MAX_VALUE, simulation.getShownProgress(), 0);
+        assertEquals(360f, simulation.getSweep(simulation.getFrameCount() - 1), 0f);
+    }
+
+    @Test
+    public void tweenSettlesOnTheNextByteCountAboveAFloatsRange() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setMaxProgress(Long.MAX_VALUE);
+        // Neighbouring byte counts this large round to the same float, so only a double animation can tell them apart
+        double bytes = (1L << 60) + (1L << 40), next = Math.nextUp(bytes);
+        simulation.step(FRAME);
+        simulation.setProgress(bytes);
+        simulation.run(40, FRAME);
+        assertEquals(bytes, simulation.getShownProgress(), 0);
+        simulation.setProgress(next);
+        assertTrue(simulation.isRunning());
+        simulation.run(40, FRAME);
+        assertEquals(next, simulation.getShownProgress(), 0);
+        assertFalse(simulation.isRunning());
+    }
+
+    @Test
+    public void springComesToRestAtAnExactTargetNearLongMaxValue() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setProgressSmoothing(true);
+        simulation.setMaxProgress(Long.MAX_VALUE);
+        simulation.step(FRAME);
+        double target = Long.MAX_VALUE / 4 * 3;
+        simulation.setProgress(target);
+        for(int i = 0; i < 1000 && simulation.isRunning(); i++)
+            simulation.step(FRAME);
+
+        assertFalse(simulation.isRunning());
+        assertEquals(target, simulation.getShownProgress(), 0);
+        assertEquals(270f, simulation.getSweep(simulation.getFrameCount() - 1), 0f);
+    }
+
+    @Test
+    public void nothingIsAskedOfTheClockOnceTheAnimationsEnd() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.step(FRAME);
+        simulation.setProgress(10);
+        simulation.run(40, FRAME);
+        long invalidations = simulation.getInvalidationCount();
+        simulation.run(2, FRAME);
+        assertFalse(simulation.getClock().getFrameTicker().isTicking());
+        simulation.run(10, FRAME);
+        assertEquals(invalidations, simulation.getInvalidationCount());
+    }
+
+    @Test
+    public void animationsOnTheSameClockShareItsFrames() {
+        VirtualClock clock = new VirtualClock(1000);
+        ArcSimulation stepped = new ArcSimulation(clock), other = new ArcSimulation(clock);
+        other.setIndeterminate(true);
+        stepped.setIndeterminate(true);
+        stepped.run(10, FRAME);
+        // Advancing the clock for one runs the frames of the other
+        other.step(0);
+        assertEquals(stepped.getStart(9), other.getStart(0), 0f);
+        assertEquals(stepped.getSweep(9), other.getSweep(0), 0f);
+    }
+
+    @Test
+    public void allocationCounterOverheadIsLeftOut() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setAllocationCounter(new ArcSimulation.AllocationCounter() {
+            private long bytes;
+
+            @Override
+            public long allocatedBytes() {
+                return bytes += 24;
+            }
+        });
+        simulation.setIndeterminate(true);
+        simulation.run(20, FRAME);
+        assertEquals(0, simulation.getTotalAllocatedBytes());
+    }
+
+    @Test
+    public void clearingFramesKeepsTheAnimationGoing() {
+        ArcSimulation simulation = new ArcSimulation();
+        simulation.setIndeterminate(true);
+        simulation.run(20, FRAME);
+        float start = simulation.getStart(19);
+        simulation.clearFrames();
+        assertEquals(0, simulation.getFrameCount());
+        assertEquals(0, simulation.getInvalidationCount());
+        simulation.step(FRAME);
+        assertTrue(simulation.getStart(0) != start);
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CircularProgressMetricsTest {
+
+    private static CircularProgressMetrics metrics(int instances, long base) {
+        return new CircularProgressMetrics(instances, base, base + 1, base + 2, base + 3, base + 4, base + 5);
+    }
+
+    @Test
+    public void performedInvalidationsAreRequestedMinusSkipped() {
+        CircularProgressMetrics m = new CircularProgressMetrics(1, 0, 100, 30, 0, 0, 0);
+        assertEquals(100, m.getInvalidationsRequested());
+        assertEquals(30, m.getInvalidationsSkipped());
+        assertEquals(70, m.getInvalidationsPerformed());
+    }
+
+    @Test
+    public void plusAddsEveryCounterAndInstanceCount() {
+        CircularProgressMetrics sum = metrics(2, 10).plus(metrics(3, 100));
+        assertEquals(5, sum.getInstanceCount());
+        assertEquals(110, sum.getFramesDrawn());
+        assertEquals(112, sum.getInvalidationsRequested());
+        assertEquals(114, sum.getInvalidationsSkipped());
+        assertEquals(116, sum.getAnimatorUpdates());
+        assertEquals(118, sum.getDrawTimeNanos());
+        assertEquals(120, sum.getAnimatorUpdateTimeNanos());
+    }
+
+    @Test
+    public void minusKeepsTheCurrentInstanceCount() {
+        CircularProgressMetrics interval = metrics(4, 100).minus(metrics(7, 10));
+        assertEquals(4, interval.getInstanceCount());
+        assertEquals(90, interval.getFramesDrawn());
+        assertEquals(90, interval.getInvalidationsRequested());
+        assertEquals(90, interval.getInvalidationsSkipped());
+        assertEquals(90, interval.getAnimatorUpdates());
+        assertEquals(90, interval.getDrawTimeNanos());
+        assertEquals(90, interval.getAnimatorUpdateTimeNanos());
+    }
+
+    @Test
+    public void minusUndoesPlusForTheCounters() {
+        CircularProgressMetrics a = metrics(2, 40), b = metrics(3, 7);
+        CircularProgressMetrics roundTrip = a.plus(b).minus(b);
+        // The instance count stays the combined one
+        assertEquals(5, roundTrip.getInstanceCount());
+        assertEquals(new CircularProgressMetrics(5, 40, 41, 42, 43, 44, 45).toString(), roundTrip.toString());
+    }
+}
@@ -0,0 +1,263 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrameTickerTest {
+
+    // Delivers a posted frame only when the test asks for one
+    private static final class ManualSource implements FrameTicker.FrameSource {
+        long now;
+        FrameTicker posted;
+        int posts;
+
+        @Override
+        public void postFrame(FrameTicker ticker) {
+            posted = ticker;
+            posts++;
+        }
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        boolean frame(long time) {
+            now = time;
+            FrameTicker ticker = posted;
+            posted = null;
+            if(ticker == null)
+                return false;
+            ticker.doFrame(time);
+            return true;
+        }
+    }
+
+    private static class Recorder implements FrameTicker.Client {
+        final List<String> events;
+        final String name;
+        IndeterminateArc lastArc;
+        float lastFraction;
+        int frames;
+
+        Recorder(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public void onFrame(float cycleFraction, IndeterminateArc arc) {
+            frames++;
+            lastFraction = cycleFraction;
+            lastArc = arc;
+            events.add(name + ":frame");
+        }
+
+        @Override
+        public void onLoop() {
+            events.add(name + ":loop");
+        }
+    }
+
+    private ManualSource source;
+    private FrameTicker ticker;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        source = new ManualSource();
+        ticker = new FrameTicker(source);
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void clientsWithTheSameTimingShareOneArc() {
+        Recorder a = new Recorder("a", events), b = new Recorder("b", events), c = new Recorder("c", events);
+        ticker.register(a, 1000, 3, 0);
+        ticker.register(b, 1000, 3, 0);
+        ticker.register(c, 1000, 3, 100);
+        source.frame(250);
+
+        assertSame(a.lastArc, b.lastArc);
+        assertNotSame(a.lastArc, c.lastArc);
+        assertEquals(.25f, a.lastFraction, 0f);
+        assertEquals(.15f, c.lastFraction, 1e-6f);
+        // Only one frame is asked for, however many clients there are
+        assertEquals(2, source.posts);
+    }
+
+    @Test
+    public void synchronizedClientsStayInPhase() {
+        Recorder early = new Recorder("early", events), late = new Recorder("late", events);
+        ticker.register(early, 1000, 3, FrameTicker.SYNCHRONIZED_START);
+        source.frame(4321);
+        ticker.register(late, 1000, 3, FrameTicker.SYNCHRONIZED_START);
+        source.frame(4337);
+        assertSame(early.lastArc, late.lastArc);
+        assertEquals(.337f, late.lastFraction, 1e-6f);
+    }
+
+    @Test
+    public void loopIsReportedBeforeTheFrameThatStartsIt() {
+        Recorder a = new Recorder("a", events);
+        ticker.register(a, 1000, 3, 0);
+        source.frame(0);
+        source.frame(990);
+        source.frame(1006);
+        assertEquals(4, events.size());
+        assertEquals("a:frame", events.get(0));
+        assertEquals("a:frame", events.get(1));
+        assertEquals("a:loop", events.get(2));
+        assertEquals("a:frame", events.get(3));
+    }
+
+    @Test
+    public void registeringTwiceIsIgnored() {
+        Recorder a = new Recorder("a", events);
+        ticker.register(a, 1000, 3, 0);
+        ticker.register(a, 2000, 3, 0);
+        source.frame(16);
+        assertEquals(1, a.frames);
+        assertEquals(.016f, a.lastFraction, 1e-6f);
+    }
+
+    @Test
+    public void clientsCanUnregisterThemselvesAndOthersDuringAFrame() {
+        final Recorder b = new Recorder("b", events);
+        Recorder a = new Recorder("a", events) {
+            @Override
+            public void onFrame(float cycleFraction, IndeterminateArc arc) {
+                super.onFrame(cycleFraction, arc);
+                ticker.unregister(this);
+                ticker.unregister(b);
+            }
+        };
+        ticker.register(a, 1000, 3, 0);
+        ticker.register(b, 1000, 3, 0);
+        source.frame(16);
+        // The frame in progress still reaches every client it started with
+        assertEquals(1, a.frames);
+        assertEquals(1, b.frames);
+
+        // One more frame notices nobody is left, and stops asking for frames
+        assertTrue(ticker.isTicking());
+        assertTrue(source.frame(32));
+        assertFalse(ticker.isTicking());
+        assertFalse(source.frame(48));
+        assertEquals(1, a.frames);
+    }
+
+    @Test
+    public void clientRegisteredDuringAFrameStartsOnTheNext() {
+        final Recorder late = new Recorder("late", events);
+        Recorder a = new Recorder("a", events) {
+            @Override
+            public void onFrame(float cycleFraction, IndeterminateArc arc) {
+                super.onFrame(cycleFraction, arc);
+                if(frames == 1)
+                    ticker.register(late, 500, 2, 16);
+            }
+        };
+        ticker.register(a, 1000, 3, 0);
+        source.frame(16);
+        assertEquals(0, late.frames);
+        source.frame(32);
+        assertEquals(1, late.frames);
+        assertEquals(.032f, late.lastFraction, 1e-6f);
+    }
+
+    @Test
+    public void nowIsTheFrameTimeWhileTicking() {
+        source.now = 100;
+        assertEquals(100, ticker.now());
+        ticker.register(new Recorder("a", events), 1000, 3, 0);
+        source.frame(116);
+        source.now = 120;
+        assertEquals(116, ticker.now());
+    }
+
+    @Test
+    public void rejoiningWithThePlayTimeContinuesAtTheSamePhase() {
+        // Like a drawable restoring a snapshot: leave at some play time, come back later starting that far back
+        Recorder a = new Recorder("a", events);
+        ticker.register(a, 1000, 3, 0);
+        source.frame(2730);
+        float fraction = a.lastFraction;
+        float start = a.lastArc.startAngle + a.lastArc.rotateOffset, sweep = a.lastArc.sweep;
+        long playTime = (long) (fraction * 1000);
+        ticker.unregister(a);
+        source.frame(2746);
+
+        source.now = 90000;
+        ticker.register(a, 1000, 3, ticker.now() - playTime);
+        source.frame(90000);
+        assertEquals(fraction, a.lastFraction, 1e-6f);
+        assertEquals(start, a.lastArc.startAngle + a.lastArc.rotateOffset, 1e-3f);
+        assertEquals(sweep, a.lastArc.sweep, 1e-3f);
+    }
+
+    @Test
+    public void restartsAfterStopping() {
+        Recorder a = new Recorder("a", events);
+        ticker.register(a, 1000, 3, 0);
+        source.frame(16);
+        ticker.unregister(a);
+        source.frame(32);
+        assertFalse(ticker.isTicking());
+
+        ticker.register(a, 1000, 3, 0);
+        assertTrue(ticker.isTicking());
+        assertTrue(source.frame(48));
+        assertEquals(2, a.frames);
+    }
+
+    @Test
+    public void frameCallbacksRunAfterTheClientsUntilRemoved() {
+        final List<Long> times = new ArrayList<>();
+        FrameTicker.FrameCallback callback = new FrameTicker.FrameCallback() {
+            @Override
+            public void doFrame(long frameTime) {
+                times.add(frameTime);
+                events.add("callback");
+            }
+        };
+        ticker.register(new Recorder("a", events), 1000, 3, 0);
+        ticker.addFrameCallback(callback);
+        ticker.addFrameCallback(callback);
+        source.frame(16);
+        assertEquals("a:frame", events.get(0));
+        assertEquals("callback", events.get(1));
+        assertEquals(2, events.size());
+
+        ticker.removeFrameCallback(callback);
+        source.frame(32);
+        assertEquals(1, times.size());
+        assertEquals(16L, (long) times.get(0));
+    }
+
+    @Test
+    public void frameCallbacksAloneKeepTheTickerTicking() {
+        FrameTicker.FrameCallback callback = new FrameTicker.FrameCallback() {
+            @Override
+            public void doFrame(long frameTime) {
+                ticker.removeFrameCallback(this);
+            }
+        };
+        ticker.addFrameCallback(callback);
+        assertTrue(ticker.isTicking());
+        assertTrue(source.frame(16));
+        // Removed during its frame, so the next frame finds nothing left and stops
+        assertTrue(source.frame(32));
+        assertFalse(ticker.isTicking());
+        assertFalse(source.frame(48));
+    }
+}
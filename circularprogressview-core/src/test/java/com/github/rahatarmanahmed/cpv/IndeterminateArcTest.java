@@ -0,0 +1,73 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IndeterminateArcTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    private static float drawnStart(IndeterminateArc arc) {
+        return arc.startAngle + arc.rotateOffset;
+    }
+
+    // Difference between two angles, ignoring whole turns
+    private static float angleDelta(float a, float b) {
+        float delta = (a - b) % 360f;
+        if(delta > 180f)
+            delta -= 360f;
+        else if(delta < -180f)
+            delta += 360f;
+        return Math.abs(delta);
+    }
+
+    @Test
+    public void cycleIsTwoHalvesPerStep() {
+        assertEquals(3996, IndeterminateArc.cycleDuration(4000, 3));
+        assertEquals(4000, IndeterminateArc.cycleDuration(4000, 4));
+        assertEquals(0, IndeterminateArc.cycleDuration(1, 3));
+    }
+
+    @Test
+    public void loopStartsAtTheTopWithTheSmallestSweep() {
+        IndeterminateArc arc = new IndeterminateArc();
+        arc.set(0f, 3);
+        assertEquals(-90f, drawnStart(arc), EPSILON);
+        assertEquals(IndeterminateArc.MIN_SWEEP, arc.sweep, EPSILON);
+    }
+
+    @Test
+    public void endOfTheLoopMatchesItsStart() {
+        for(int steps = 1; steps <= 6; steps++) {
+            IndeterminateArc first = new IndeterminateArc(), last = new IndeterminateArc();
+            first.set(0f, steps);
+            last.set(1f, steps);
+            assertEquals("steps " + steps, 0f, angleDelta(drawnStart(first), drawnStart(last)), EPSILON);
+            assertEquals("steps " + steps, first.sweep, last.sweep, EPSILON);
+        }
+    }
+
+    @Test
+    public void arcIsContinuousAcrossStepsAndTheLoopBoundary() {
+        int steps = 3;
+        int frames = 30000;
+        float maxSweep = 360f * (steps - 1) / steps + IndeterminateArc.MIN_SWEEP;
+        IndeterminateArc previous = new IndeterminateArc(), arc = new IndeterminateArc();
+        previous.set(0f, steps);
+        // Go around twice so the wrap from the end of one loop to the start of the next is checked too
+        for(int i = 1; i <= 2 * frames; i++) {
+            arc.set((float) (i % frames) / frames, steps);
+            assertTrue(arc.sweep >= IndeterminateArc.MIN_SWEEP - EPSILON && arc.sweep <= maxSweep + EPSILON);
+            float startMoved = angleDelta(drawnStart(arc), drawnStart(previous));
+            float endMoved = angleDelta(drawnStart(arc) + arc.sweep, drawnStart(previous) + previous.sweep);
+            // The fastest end moves by the step's sweep times the curve's slope of 2, plus the rotation
+            assertTrue("Start jumped by " + startMoved + " at frame " + i, startMoved < 0.5f);
+            assertTrue("End jumped by " + endMoved + " at frame " + i, endMoved < 0.5f);
+            IndeterminateArc swap = previous;
+            previous = arc;
+            arc = swap;
+        }
+    }
+}
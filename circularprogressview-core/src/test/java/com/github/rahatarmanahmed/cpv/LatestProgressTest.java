@@ -0,0 +1,123 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatestProgressTest {
+
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 200000;
+
+    // Runs the tasks given to it in batches, like frames on a UI thread, and checks only one delivery is ever queued
+    private static final class FrameLoop implements Executor {
+        final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        volatile int maxQueued;
+        int frames;
+
+        @Override
+        public void execute(Runnable command) {
+            int count = queued.incrementAndGet();
+            if(count > maxQueued)
+                maxQueued = count;
+            queue.add(command);
+        }
+
+        // Tasks given while a frame runs wait for the next one
+        void runFrame() {
+            frames++;
+            for(int count = queue.size(); count > 0; count--) {
+                Runnable task = queue.poll();
+                queued.decrementAndGet();
+                task.run();
+            }
+        }
+    }
+
+    private static final class Recorder extends CircularProgressViewAdapter {
+        int deliveries;
+        float last = Float.NaN;
+        boolean sawForeignValue;
+
+        @Override
+        public void onProgressUpdate(float currentProgress) {
+            deliveries++;
+            last = currentProgress;
+            // Writers only publish whole numbers below their range, so anything else is a torn or invented value
+            if(currentProgress != (int) currentProgress || currentProgress < 0 || currentProgress >= WRITERS * WRITES_PER_WRITER)
+                sawForeignValue = true;
+        }
+    }
+
+    @Test
+    public void coalescesWritesFromManyThreadsIntoOneDeliveryPerFrame() throws InterruptedException {
+        final FrameLoop loop = new FrameLoop();
+        final Recorder recorder = new Recorder();
+        final LatestProgress progress = new LatestProgress(recorder, loop);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(WRITERS);
+        for(int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for(int i = 0; i < WRITES_PER_WRITER; i++)
+                        progress.publish(writer * WRITES_PER_WRITER + i);
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        start.countDown();
+        while(done.getCount() > 0)
+            loop.runFrame();
+        loop.runFrame();
+
+        assertEquals("Only one delivery may be pending at a time", 1, loop.maxQueued);
+        assertTrue("At most one delivery per frame", recorder.deliveries <= loop.frames);
+        assertTrue("Writes must be coalesced", recorder.deliveries < WRITERS * WRITES_PER_WRITER);
+        assertTrue("Only published values may be delivered", !recorder.sawForeignValue);
+
+        // Once the writers are done, the last value published is the one shown
+        progress.publish(42);
+        loop.runFrame();
+        assertEquals(42f, recorder.last, 0f);
+        assertEquals(0, loop.queued.get());
+    }
+
+    @Test
+    public void valuePublishedDuringDeliveryIsDeliveredNextFrame() {
+        FrameLoop loop = new FrameLoop();
+        final Recorder recorder = new Recorder();
+        final LatestProgress[] progress = new LatestProgress[1];
+        progress[0] = new LatestProgress(new CircularProgressViewAdapter() {
+            @Override
+            public void onProgressUpdate(float currentProgress) {
+                recorder.onProgressUpdate(currentProgress);
+                // A write racing with the delivery, after the flag was cleared
+                if(currentProgress == 1)
+                    progress[0].publish(2);
+            }
+        }, loop);
+
+        progress[0].publish(1);
+        loop.runFrame();
+        assertEquals(1, recorder.deliveries);
+        loop.runFrame();
+        assertEquals(2, recorder.deliveries);
+        assertEquals(2f, recorder.last, 0f);
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ListenerDispatcherTest {
+
+    private static class Recorder extends CircularProgressViewAdapter {
+        final String name;
+        final List<String> events;
+        float lastFloat;
+
+        Recorder(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public void onProgressUpdate(float currentProgress) {
+            lastFloat = currentProgress;
+            events.add(name + ":update");
+        }
+
+        @Override
+        public void onProgressUpdateEnd(float currentProgress) {
+            lastFloat = currentProgress;
+            events.add(name + ":end");
+        }
+    }
+
+    private static class PreciseRecorder extends Recorder implements PreciseProgressListener {
+        double lastPrecise;
+
+        PreciseRecorder(String name, List<String> events) {
+            super(name, events);
+        }
+
+        @Override
+        public void onPreciseProgressUpdate(double currentProgress) {
+            lastPrecise = currentProgress;
+            events.add(name + ":preciseUpdate");
+        }
+
+        @Override
+        public void onPreciseProgressUpdateEnd(double currentProgress) {
+            lastPrecise = currentProgress;
+            events.add(name + ":preciseEnd");
+        }
+    }
+
+    private ListenerDispatcher dispatcher;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        dispatcher = new ListenerDispatcher();
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void preciseCallbackFollowsTheFloatCallbackOfTheSameListener() {
+        dispatcher.add(new Recorder("a", events));
+        dispatcher.add(new PreciseRecorder("b", events));
+        dispatcher.add(new Recorder("c", events));
+        dispatcher.dispatchProgressUpdate(10);
+        dispatcher.dispatchProgressUpdateEnd(10);
+        assertEquals(Arrays.asList("a:update", "b:update", "b:preciseUpdate", "c:update",
+                "a:end", "b:end", "b:preciseEnd", "c:end"), events);
+    }
+
+    @Test
+    public void preciseListenersGetTheExactProgressPast2To24() {
+        PreciseRecorder precise = new PreciseRecorder("p", events);
+        dispatcher.add(precise);
+        double[] values = {(1L << 24) + 1, 4294967297.0, (1L << 53) - 1, Long.MAX_VALUE};
+        for(double value : values) {
+            dispatcher.dispatchProgressUpdate(value);
+            assertEquals(value, precise.lastPrecise, 0);
+            assertEquals((float) value, precise.lastFloat, 0f);
+            dispatcher.dispatchProgressUpdateEnd(value);
+            assertEquals(value, precise.lastPrecise, 0);
+        }
+        // The float callback can't tell these bytes apart, the precise one can
+        dispatcher.dispatchProgressUpdate((1L << 24) + 1);
+        assertEquals(1L << 24, (long) precise.lastFloat);
+        assertEquals((1L << 24) + 1, (long) precise.lastPrecise);
+    }
+
+    @Test
+    public void byteCountsUpToLongMaxValueArriveInOrder() {
+        PreciseRecorder precise = new PreciseRecorder("p", events);
+        dispatcher.add(precise);
+        double previous = -1;
+        for(long bytes = 1; bytes <= Long.MAX_VALUE / 3; bytes = bytes * 3 + 1) {
+            dispatcher.dispatchProgressUpdate(bytes);
+            assertTrue(precise.lastPrecise > previous);
+            if(bytes <= 1L << 53)
+                assertEquals(bytes, (long) precise.lastPrecise);
+            previous = precise.lastPrecise;
+        }
+        dispatcher.dispatchProgressUpdate(Long.MAX_VALUE);
+        assertEquals((double) Long.MAX_VALUE, precise.lastPrecise, 0);
+    }
+
+    @Test
+    public void listenersAddedDuringADispatchStartWithTheNext() {
+        final Recorder late = new Recorder("late", events);
+        dispatcher.add(new Recorder("a", events) {
+            @Override
+            public void onProgressUpdate(float currentProgress) {
+                super.onProgressUpdate(currentProgress);
+                dispatcher.add(late);
+                dispatcher.remove(this);
+            }
+        });
+        dispatcher.dispatchProgressUpdate(1);
+        dispatcher.dispatchProgressUpdate(2);
+        assertEquals(Arrays.asList("a:update", "late:update"), events);
+    }
+}
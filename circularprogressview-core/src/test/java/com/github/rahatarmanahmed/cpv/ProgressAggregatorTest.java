@@ -0,0 +1,66 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProgressAggregatorTest {
+
+    private static final class CountingListener implements ProgressAggregator.Listener {
+        int notifications;
+
+        @Override
+        public void onProgressChanged(ProgressAggregator aggregator) {
+            notifications++;
+        }
+    }
+
+    @Test
+    public void notifiesOncePerCollect() {
+        ProgressAggregator aggregator = new ProgressAggregator(3, 100);
+        CountingListener listener = new CountingListener();
+        aggregator.setListener(listener);
+        aggregator.set(0, 10);
+        aggregator.set(1, 20);
+        aggregator.add(2, 30);
+        assertEquals(1, listener.notifications);
+
+        assertEquals(.2f, aggregator.collect(), 1e-6f);
+        aggregator.add(2, 30);
+        assertEquals(2, listener.notifications);
+    }
+
+    @Test
+    public void withoutACollectLaterChangesAreNotReported() {
+        // Why whoever is notified must always get to collect: a lost collect silences the aggregator for good
+        ProgressAggregator aggregator = new ProgressAggregator(1, 1);
+        CountingListener listener = new CountingListener();
+        aggregator.setListener(listener);
+        for(int i = 1; i <= 10; i++)
+            aggregator.set(0, i / 10.0);
+        assertEquals(1, listener.notifications);
+        assertEquals(1f, aggregator.collect(), 0f);
+    }
+
+    @Test
+    public void weighsAndClampsEachPart() {
+        ProgressAggregator aggregator = new ProgressAggregator(new float[] {1, 3}, new float[] {10, 200});
+        aggregator.set(0, 50);
+        aggregator.set(1, 100);
+        // (1 * 1 + 3 * .5) / 4
+        assertEquals(.625f, aggregator.getFraction(), 1e-6f);
+        aggregator.set(1, -5);
+        assertEquals(.25f, aggregator.getFraction(), 1e-6f);
+    }
+
+    @Test
+    public void resetClearsEveryPart() {
+        ProgressAggregator aggregator = new ProgressAggregator(2, 1);
+        aggregator.set(0, 1);
+        aggregator.add(1, .5);
+        aggregator.reset();
+        assertEquals(0, aggregator.get(0), 0);
+        assertEquals(0, aggregator.get(1), 0);
+        assertEquals(0f, aggregator.collect(), 0f);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressInputStreamTest {
+
+    private static final int SIZE = 1000;
+
+    private TransferProgressTest.Recorder recorder;
+    private TransferProgress progress;
+
+    private ProgressInputStream open(InputStream in) {
+        recorder = new TransferProgressTest.Recorder();
+        progress = new TransferProgress(SIZE, 100f, 10, recorder);
+        return new ProgressInputStream(in, progress);
+    }
+
+    private ProgressInputStream open() {
+        return open(new ByteArrayInputStream(new byte[SIZE]));
+    }
+
+    @Test
+    public void singleAndBulkReadsAreCounted() throws IOException {
+        ProgressInputStream in = open();
+        in.read();
+        assertEquals(1, progress.getBytes());
+        assertEquals(300, in.read(new byte[300]));
+        assertEquals(301, progress.getBytes());
+        assertEquals(100, in.read(new byte[200], 50, 100));
+        assertEquals(401, progress.getBytes());
+        assertEquals(40.1f, recorder.last(), 1e-4f);
+    }
+
+    @Test
+    public void skippedBytesCountAsTransferred() throws IOException {
+        ProgressInputStream in = open();
+        assertEquals(250, in.skip(250));
+        assertEquals(250, progress.getBytes());
+        assertEquals(25f, recorder.last(), 0f);
+        // Only what was actually skipped counts
+        assertEquals(750, in.skip(5000));
+        assertEquals(SIZE, progress.getBytes());
+        assertEquals(100f, recorder.last(), 0f);
+    }
+
+    @Test
+    public void resetRewindsTheCountToTheMark() throws IOException {
+        ProgressInputStream in = open();
+        assertTrue(in.markSupported());
+        in.read(new byte[200]);
+        in.mark(SIZE);
+        in.read(new byte[500]);
+        assertEquals(700, progress.getBytes());
+        in.reset();
+        assertEquals(200, progress.getBytes());
+        assertEquals(20f, recorder.last(), 0f);
+        // Reading again after the reset counts from the mark
+        in.read(new byte[100]);
+        assertEquals(300, progress.getBytes());
+        assertEquals(30f, recorder.last(), 0f);
+    }
+
+    @Test
+    public void endOfStreamIsNotCounted() throws IOException {
+        ProgressInputStream in = open();
+        byte[] buffer = new byte[400];
+        while(in.read(buffer) > 0) {
+        }
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(buffer, 0, buffer.length));
+        assertEquals(SIZE, progress.getBytes());
+        assertEquals(100f, recorder.last(), 0f);
+        int updates = recorder.updates.size();
+        in.read();
+        assertEquals(updates, recorder.updates.size());
+    }
+
+    @Test
+    public void closeClosesTheWrappedStream() throws IOException {
+        final boolean[] closed = new boolean[1];
+        ProgressInputStream in = open(new ByteArrayInputStream(new byte[SIZE]) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        });
+        in.read(new byte[100]);
+        in.close();
+        assertTrue(closed[0]);
+        assertEquals(100, progress.getBytes());
+    }
+}
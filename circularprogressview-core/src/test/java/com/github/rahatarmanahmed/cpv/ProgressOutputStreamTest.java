@@ -0,0 +1,105 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressOutputStreamTest {
+
+    private static final int SIZE = 1000;
+
+    // Counts the calls it gets, to check bulk writes stay whole
+    private static final class Sink extends ByteArrayOutputStream {
+        int writes;
+        boolean flushed, closed;
+
+        @Override
+        public synchronized void write(int b) {
+            writes++;
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+        }
+    }
+
+    private TransferProgressTest.Recorder recorder;
+    private TransferProgress progress;
+
+    private ProgressOutputStream open(OutputStream out) {
+        recorder = new TransferProgressTest.Recorder();
+        progress = new TransferProgress(SIZE, 100f, 10, recorder);
+        return new ProgressOutputStream(out, progress);
+    }
+
+    @Test
+    public void singleAndBulkWritesAreCounted() throws IOException {
+        Sink sink = new Sink();
+        ProgressOutputStream out = open(sink);
+        out.write(7);
+        out.write(new byte[300]);
+        out.write(new byte[200], 50, 100);
+        assertEquals(401, progress.getBytes());
+        assertEquals(401, sink.size());
+        assertEquals(40.1f, recorder.last(), 1e-4f);
+        // Bulk writes reach the wrapped stream whole
+        assertEquals(3, sink.writes);
+    }
+
+    @Test
+    public void stepThresholdsPublishAsTheWriteGoesOn() throws IOException {
+        ProgressOutputStream out = open(new Sink());
+        for(int i = 0; i < SIZE / 50; i++)
+            out.write(new byte[50]);
+        assertEquals(10, recorder.updates.size());
+        for(int i = 0; i < recorder.updates.size(); i++)
+            assertEquals((i + 1) * 10f, recorder.updates.get(i), 0f);
+    }
+
+    @Test
+    public void failedWritesAreNotCounted() throws IOException {
+        ProgressOutputStream out = open(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        });
+        try {
+            out.write(new byte[100]);
+        }
+        catch(IOException expected) {
+        }
+        assertEquals(0, progress.getBytes());
+    }
+
+    @Test
+    public void flushAndCloseReachTheWrappedStream() throws IOException {
+        Sink sink = new Sink();
+        ProgressOutputStream out = open(sink);
+        out.write(new byte[SIZE]);
+        out.flush();
+        assertTrue(sink.flushed);
+        out.close();
+        assertTrue(sink.closed);
+        assertEquals(100f, recorder.last(), 0f);
+        assertEquals(SIZE, progress.getBytes());
+    }
+}
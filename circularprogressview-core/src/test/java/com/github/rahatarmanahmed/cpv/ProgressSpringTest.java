@@ -0,0 +1,97 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressSpringTest {
+
+    private static ProgressSpring springTo(float target) {
+        ProgressSpring spring = new ProgressSpring();
+        spring.setSmoothingDuration(500);
+        spring.setRestThreshold(.05f);
+        spring.reset(0);
+        spring.setTarget(target);
+        return spring;
+    }
+
+    @Test
+    public void comesToRestAtTheTargetWithoutOvershooting() {
+        ProgressSpring spring = springTo(100);
+        long elapsed = 0;
+        double previous = 0;
+        while(spring.step(16)) {
+            elapsed += 16;
+            assertTrue("Moved back at " + elapsed + " ms", spring.getPosition() >= previous);
+            assertTrue("Overshot at " + elapsed + " ms", spring.getPosition() <= 100f);
+            previous = spring.getPosition();
+            assertTrue("Still moving after " + elapsed + " ms", elapsed < 2000);
+        }
+        assertTrue(spring.isAtRest());
+        assertEquals(100f, spring.getPosition(), 0f);
+    }
+
+    @Test
+    public void restsRoughlyAfterTheSmoothingDuration() {
+        ProgressSpring spring = springTo(100);
+        spring.setRestThreshold(1f);
+        long elapsed = 0;
+        while(spring.step(16))
+            elapsed += 16;
+        assertTrue("Rested after " + elapsed + " ms", elapsed >= 400 && elapsed <= 600);
+    }
+
+    @Test
+    public void stepsAreExactWhateverTheFrameTimes() {
+        ProgressSpring regular = springTo(100), irregular = springTo(100);
+        regular.step(48);
+        irregular.step(5);
+        irregular.step(31);
+        irregular.step(12);
+        assertEquals(regular.getPosition(), irregular.getPosition(), 1e-3f);
+        assertEquals(regular.getVelocity(), irregular.getVelocity(), 1e-5f);
+    }
+
+    @Test
+    public void timeThatDoesNotMoveForwardChangesNothing() {
+        ProgressSpring spring = springTo(100);
+        spring.step(32);
+        double position = spring.getPosition(), velocity = spring.getVelocity();
+        assertTrue(spring.step(0));
+        assertTrue(spring.step(-500));
+        assertEquals(position, spring.getPosition(), 0f);
+        assertEquals(velocity, spring.getVelocity(), 0f);
+    }
+
+    @Test
+    public void retargetingKeepsTheVelocity() {
+        ProgressSpring spring = springTo(100);
+        spring.step(100);
+        double velocity = spring.getVelocity();
+        assertTrue(velocity > 0);
+        spring.setTarget(200);
+        assertEquals(velocity, spring.getVelocity(), 0f);
+        spring.step(16);
+        assertTrue(spring.getVelocity() > 0);
+    }
+
+    @Test
+    public void zeroSmoothingFollowsTheTargetImmediately() {
+        ProgressSpring spring = springTo(100);
+        spring.setSmoothingDuration(0);
+        assertFalse(spring.step(16));
+        assertEquals(100f, spring.getPosition(), 0f);
+    }
+
+    @Test
+    public void atRestDoesNotMove() {
+        ProgressSpring spring = new ProgressSpring();
+        spring.reset(42);
+        assertTrue(spring.isAtRest());
+        assertFalse(spring.step(16));
+        assertEquals(42f, spring.getPosition(), 0f);
+        assertEquals(42f, spring.getTarget(), 0f);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressStoreTest {
+
+    @Test
+    public void putGetAndOverwrite() {
+        ProgressStore store = new ProgressStore();
+        store.put(7, 10f);
+        store.put(-7, 20f);
+        store.put(Long.MIN_VALUE, 30f);
+        store.put(7, 11f);
+        assertEquals(3, store.size());
+        assertEquals(11f, store.get(7, -1f), 0f);
+        assertEquals(20f, store.get(-7, -1f), 0f);
+        assertEquals(30f, store.get(Long.MIN_VALUE, -1f), 0f);
+        assertEquals(-1f, store.get(8, -1f), 0f);
+        assertFalse(store.contains(8));
+    }
+
+    @Test
+    public void growsPastItsExpectedSize() {
+        ProgressStore store = new ProgressStore(4);
+        for(int i = 0; i < 10000; i++)
+            store.put(i * 31L, i);
+        assertEquals(10000, store.size());
+        for(int i = 0; i < 10000; i++)
+            assertEquals(i, store.get(i * 31L, -1f), 0f);
+    }
+
+    @Test
+    public void removeKeepsCollidingEntriesReachable() {
+        // 12 ids fill the smallest table to its limit, so probe runs are long; remove each in turn
+        for(long removed = 0; removed < 12; removed++) {
+            ProgressStore store = new ProgressStore();
+            for(long i = 0; i < 12; i++)
+                store.put(i << 40, i);
+            assertTrue(store.remove(removed << 40));
+            assertFalse(store.remove(removed << 40));
+            assertEquals(11, store.size());
+            for(long i = 0; i < 12; i++) {
+                if(i != removed)
+                    assertEquals(i, store.get(i << 40, -1f), 0f);
+            }
+            assertFalse(store.contains(removed << 40));
+        }
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        ProgressStore store = new ProgressStore();
+        store.put(1, 1f);
+        store.put(2, 2f);
+        store.clear();
+        assertEquals(0, store.size());
+        assertFalse(store.contains(1));
+        store.put(2, 3f);
+        assertEquals(3f, store.get(2, 0f), 0f);
+    }
+
+    @Test
+    public void matchesAHashMapUnderRandomOperations() {
+        Random random = new Random(16);
+        ProgressStore store = new ProgressStore();
+        Map<Long, Float> expected = new HashMap<>();
+        for(int i = 0; i < 200000; i++) {
+            // A small id range so puts, overwrites and removals of present ids all happen often
+            long id = random.nextInt(512) - 256;
+            switch(random.nextInt(3)) {
+                case 0:
+                    float progress = random.nextFloat();
+                    store.put(id, progress);
+                    expected.put(id, progress);
+                    break;
+                case 1:
+                    assertEquals(expected.remove(id) != null, store.remove(id));
+                    break;
+                default:
+                    Float value = expected.get(id);
+                    assertEquals(value != null ? value : -1f, store.get(id, -1f), 0f);
+                    break;
+            }
+            assertEquals(expected.size(), store.size());
+        }
+        for(Map.Entry<Long, Float> entry : expected.entrySet())
+            assertEquals(entry.getValue(), store.get(entry.getKey(), -1f), 0f);
+    }
+}
@@ -0,0 +1,213 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressSubscriberTest {
+
+    // Runs posted deliveries only when the test draws a frame, like the UI thread would
+    private static final class FrameQueue implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        int frame() {
+            List<Runnable> frame;
+            synchronized(this) {
+                frame = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            for(Runnable task : frame)
+                task.run();
+            return frame.size();
+        }
+    }
+
+    private static final class CountingSubscription implements ProgressSubscriber.Subscription {
+        final AtomicLong requested = new AtomicLong();
+        volatile boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class Recorder extends CircularProgressViewAdapter {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onProgressUpdate(float currentProgress) {
+            events.add(String.valueOf(currentProgress));
+        }
+
+        @Override
+        public void onModeChanged(boolean isIndeterminate) {
+            events.add(isIndeterminate ? "indeterminate" : "determinate");
+        }
+    }
+
+    private FrameQueue frames;
+    private Recorder recorder;
+    private ProgressSubscriber subscriber;
+    private CountingSubscription subscription;
+
+    @Before
+    public void setUp() {
+        frames = new FrameQueue();
+        recorder = new Recorder();
+        subscriber = new ProgressSubscriber(recorder, frames);
+        subscription = new CountingSubscription();
+    }
+
+    @Test
+    public void isIndeterminateUntilTheFirstItem() {
+        subscriber.onSubscribe(subscription);
+        assertEquals(0, subscription.requested.get());
+        frames.frame();
+        assertEquals(1, recorder.events.size());
+        assertEquals("indeterminate", recorder.events.get(0));
+        assertEquals(1, subscription.requested.get());
+
+        subscriber.onNext(30);
+        frames.frame();
+        assertEquals("determinate", recorder.events.get(1));
+        assertEquals("30.0", recorder.events.get(2));
+    }
+
+    @Test
+    public void requestsTheNextItemOnlyAfterDeliveringOne() {
+        subscriber.onSubscribe(subscription);
+        frames.frame();
+        assertEquals(1, subscription.requested.get());
+        subscriber.onNext(10);
+        // Not delivered yet, so nothing more is asked for
+        assertEquals(1, subscription.requested.get());
+        frames.frame();
+        assertEquals(2, subscription.requested.get());
+        // A frame without a new item asks for nothing
+        assertEquals(0, frames.frame());
+        assertEquals(2, subscription.requested.get());
+    }
+
+    @Test
+    public void overloadDeliversOnlyTheLatestItemPerFrame() {
+        // A publisher ignoring backpressure still costs one delivery per frame
+        subscriber.onSubscribe(subscription);
+        frames.frame();
+        recorder.events.clear();
+        for(int i = 1; i <= 1000; i++)
+            subscriber.onNext(i);
+        assertEquals(1, frames.frame());
+        assertEquals(2, recorder.events.size());
+        assertEquals("determinate", recorder.events.get(0));
+        assertEquals("1000.0", recorder.events.get(1));
+        assertEquals(2, subscription.requested.get());
+    }
+
+    @Test
+    public void overloadFromManyThreadsEndsOnTheLatestItem() throws InterruptedException {
+        subscriber.onSubscribe(subscription);
+        frames.frame();
+        final int threads = 4, items = 20000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for(int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i = 0; i < items; i++)
+                        subscriber.onNext(i);
+                    done.countDown();
+                }
+            }).start();
+        }
+        while(!done.await(1, TimeUnit.MILLISECONDS))
+            assertTrue("More than one delivery in a frame", frames.frame() <= 1);
+        subscriber.onNext(items);
+        assertEquals(1, frames.frame());
+        // The last item is never lost, however the threads raced
+        assertEquals(String.valueOf((float) items), recorder.events.get(recorder.events.size() - 1));
+        assertEquals(0, frames.frame());
+    }
+
+    @Test
+    public void unknownProgressSwitchesModes() {
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(5);
+        frames.frame();
+        subscriber.onNext(Double.NaN);
+        frames.frame();
+        subscriber.onNext(-1);
+        frames.frame();
+        subscriber.onNext(7);
+        frames.frame();
+        assertEquals(5, recorder.events.size());
+        assertEquals("determinate", recorder.events.get(0));
+        assertEquals("5.0", recorder.events.get(1));
+        assertEquals("indeterminate", recorder.events.get(2));
+        assertEquals("determinate", recorder.events.get(3));
+        assertEquals("7.0", recorder.events.get(4));
+    }
+
+    @Test
+    public void stopsRequestingWhenFinished() {
+        subscriber.onSubscribe(subscription);
+        frames.frame();
+        subscriber.onNext(50);
+        subscriber.onComplete();
+        frames.frame();
+        // The last item is still shown, but nothing more is asked for
+        assertEquals("50.0", recorder.events.get(recorder.events.size() - 1));
+        assertEquals(1, subscription.requested.get());
+        assertFalse(subscription.cancelled);
+    }
+
+    @Test
+    public void stopsRequestingAfterAnError() {
+        subscriber.onSubscribe(subscription);
+        subscriber.onError(new RuntimeException());
+        frames.frame();
+        assertEquals(0, subscription.requested.get());
+    }
+
+    @Test
+    public void cancelCancelsTheSubscription() {
+        subscriber.onSubscribe(subscription);
+        frames.frame();
+        subscriber.cancel();
+        assertTrue(subscription.cancelled);
+        subscriber.onNext(20);
+        frames.frame();
+        assertEquals(1, subscription.requested.get());
+    }
+
+    @Test
+    public void secondSubscriptionIsCancelled() {
+        subscriber.onSubscribe(subscription);
+        CountingSubscription second = new CountingSubscription();
+        subscriber.onSubscribe(second);
+        assertTrue(second.cancelled);
+        assertFalse(subscription.cancelled);
+        frames.frame();
+        assertEquals(0, second.requested.get());
+    }
+}
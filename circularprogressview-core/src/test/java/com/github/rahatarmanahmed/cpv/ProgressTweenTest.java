@@ -0,0 +1,51 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProgressTweenTest {
+
+    @Test
+    public void interpolatesFromTheShownProgress() {
+        ProgressTween tween = new ProgressTween();
+        assertTrue(tween.retarget(20, 60));
+        assertEquals(20f, tween.valueAt(0f), 0f);
+        assertEquals(40f, tween.valueAt(.5f), 0f);
+        assertEquals(60f, tween.valueAt(1f), 0f);
+        assertEquals(60f, tween.getTarget(), 0f);
+    }
+
+    @Test
+    public void burstBeforeTheFirstFrameOnlyMovesTheTarget() {
+        ProgressTween tween = new ProgressTween();
+        assertTrue(tween.retarget(0, 10));
+        assertFalse(tween.retarget(0, 20));
+        assertFalse(tween.retarget(0, 30));
+        assertEquals(0f, tween.valueAt(0f), 0f);
+        assertEquals(15f, tween.valueAt(.5f), 0f);
+    }
+
+    @Test
+    public void retargetAfterAFrameRestartsFromTheShownProgress() {
+        ProgressTween tween = new ProgressTween();
+        tween.retarget(0, 100);
+        double shown = tween.valueAt(.25f);
+        assertTrue(tween.retarget(shown, 50));
+        assertEquals(25f, tween.valueAt(0f), 0f);
+        assertEquals(50f, tween.valueAt(1f), 0f);
+    }
+
+    @Test
+    public void settledTweenRestartsFromWhereAStateWasRestored() {
+        // A restored snapshot shows its progress, settles the tween, and continues towards the target when resumed
+        ProgressTween tween = new ProgressTween();
+        tween.retarget(0, 100);
+        tween.settle();
+        assertTrue(tween.retarget(42, 100));
+        assertEquals(42f, tween.valueAt(0f), 0f);
+        assertEquals(71f, tween.valueAt(.5f), 0f);
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RedrawFilterTest {
+
+    // At a radius of 30 px, one degree is about .52 px
+    private static final float RADIUS = 30;
+
+    @Test
+    public void movementsBelowTheThresholdAreSkipped() {
+        RedrawFilter filter = new RedrawFilter();
+        assertFalse(filter.accept(0, RADIUS, 0, 90, .5f, 89.5f));
+        assertTrue(filter.accept(16, RADIUS, 0, 90, 1f, 89f));
+        // The end moving is enough, even if the start stays put
+        assertTrue(filter.accept(32, RADIUS, 0, 90, 0, 91));
+    }
+
+    @Test
+    public void zeroThresholdRedrawsAnyMovement() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setThreshold(0f);
+        assertTrue(filter.accept(0, RADIUS, 0, 90, .01f, 90));
+    }
+
+    @Test
+    public void framesSoonerThanTheCapAllowsAreSkipped() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(30);
+        assertTrue(filter.accept(1000, RADIUS, 0, 90, 10, 90));
+        assertFalse(filter.accept(1016, RADIUS, 0, 90, 20, 90));
+        // A little early is fine, frames are jittery
+        assertTrue(filter.accept(1030, RADIUS, 0, 90, 20, 90));
+    }
+
+    @Test
+    public void skippedFramesDontCountAsRedraws() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(30);
+        assertTrue(filter.accept(1000, RADIUS, 0, 90, 10, 90));
+        // Too small a movement, so the next redraw is still due at 1033
+        assertFalse(filter.accept(1030, RADIUS, 0, 90, 0, 90));
+        assertFalse(filter.accept(1031, RADIUS, 0, 90, 10, 90));
+        assertTrue(filter.accept(1033, RADIUS, 0, 90, 10, 90));
+    }
+
+    // Redraws per second of an arc that moves every frame, at the given frame interval
+    private static double redrawRate(int maxFrameRate, long frameInterval, long duration) {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setThreshold(0f);
+        filter.setMaxFrameRate(maxFrameRate);
+        int redraws = 0;
+        for(long now = 0; now < duration; now += frameInterval) {
+            if(filter.accept(now, RADIUS, now, 90, now + 1, 90))
+                redraws++;
+        }
+        // The first redraw is due right away
+        return (redraws - 1) * 1000.0 / duration;
+    }
+
+    @Test
+    public void capHoldsOnDisplaysFasterThan60Hz() {
+        for(long interval : new long[] { 8, 11, 16 }) {
+            for(int cap : new int[] { 24, 30, 60 }) {
+                double rate = redrawRate(cap, interval, 10000);
+                assertTrue(cap + " fps cap at " + interval + " ms frames redrew " + rate + " times per second", rate <= cap);
+                // And the cap isn't much stricter than asked, as long as frames come often enough to meet it
+                if(interval * 2 <= 1000 / cap)
+                    assertTrue(cap + " fps cap at " + interval + " ms frames redrew " + rate + " times per second", rate >= cap * .9);
+            }
+        }
+    }
+
+    @Test
+    public void uncappedRedrawsEveryFrame() {
+        assertEquals(125, redrawRate(0, 8, 10000), 1);
+        assertEquals(120, redrawRate(120, 8, 10000), 1);
+    }
+
+    @Test
+    public void deadlineStartsOverAfterTheArcStoodStill() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(30);
+        assertTrue(filter.accept(1000, RADIUS, 0, 90, 10, 90));
+        // Nothing moved for a second, which must not leave a backlog of redraws due at once
+        for(long now = 1016; now < 2000; now += 16)
+            assertFalse(filter.accept(now, RADIUS, 0, 90, 0, 90));
+        assertTrue(filter.accept(2000, RADIUS, 0, 90, 10, 90));
+        assertFalse(filter.accept(2016, RADIUS, 0, 90, 20, 90));
+    }
+
+    @Test
+    public void firstFrameIsNeverCapped() {
+        // A clock can start at 0, which must not look like a redraw a moment ago
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(30);
+        assertTrue(filter.accept(5, RADIUS, 0, 90, 10, 90));
+    }
+
+    @Test
+    public void forcedRedrawsCountTowardsTheCap() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(30);
+        filter.onForcedRedraw(1000);
+        assertFalse(filter.accept(1016, RADIUS, 0, 90, 10, 90));
+        assertTrue(filter.accept(1032, RADIUS, 0, 90, 10, 90));
+    }
+
+    @Test
+    public void resetStartsTheCapOver() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(30);
+        assertTrue(filter.accept(90000, RADIUS, 0, 90, 10, 90));
+        // Frame times now come from a clock that is far behind
+        filter.reset();
+        assertTrue(filter.accept(16, RADIUS, 0, 90, 20, 90));
+        assertFalse(filter.accept(32, RADIUS, 0, 90, 30, 90));
+    }
+
+    @Test
+    public void negativeFrameRateMeansNoCap() {
+        RedrawFilter filter = new RedrawFilter();
+        filter.setMaxFrameRate(-5);
+        assertEquals(0, filter.getMaxFrameRate());
+        assertTrue(filter.accept(0, RADIUS, 0, 90, 10, 90));
+        assertTrue(filter.accept(1, RADIUS, 0, 90, 20, 90));
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RingSetTest {
+
+    private RingSet rings;
+
+    @Before
+    public void setUp() {
+        rings = new RingSet();
+        rings.setDuration(500);
+    }
+
+    @Test
+    public void animatesLinearlyAndSettlesAtTheDuration() {
+        int ring = rings.add(100, 0xFF000000, 4);
+        rings.setProgress(ring, 100, 1000);
+        assertTrue(rings.isAnimating());
+
+        assertTrue(rings.update(1250));
+        assertEquals(50f, rings.getShownProgress(ring), 1e-4f);
+        assertEquals(180f, rings.getSweep(ring), 1e-3f);
+
+        assertFalse(rings.update(1500));
+        assertEquals(100f, rings.getShownProgress(ring), 0f);
+        assertFalse(rings.isAnimating());
+    }
+
+    @Test
+    public void retargetNearTheEndOfAWrapWindowStillSettles() {
+        // Times keep growing past the duration, as on a monotonic clock rather than a repeating animator
+        int ring = rings.add(100, 0xFF000000, 4);
+        rings.setProgress(ring, 100, 0);
+        rings.update(490);
+        rings.setProgress(ring, 20, 490);
+        double retargetedFrom = rings.getShownProgress(ring);
+
+        long now = 490;
+        int frames = 0;
+        while(rings.update(now += 16))
+            frames++;
+        assertTrue("Should settle within one duration, took " + frames + " frames", frames <= 500 / 16 + 1);
+        assertEquals(20f, rings.getShownProgress(ring), 0f);
+        assertTrue(retargetedFrom > 90f);
+    }
+
+    @Test
+    public void frameBeforeTheStartTimeShowsTheStartingProgress() {
+        int ring = rings.add(100, 0xFF000000, 4);
+        rings.setProgress(ring, 100, 1000);
+        assertTrue(rings.update(900));
+        assertEquals(0f, rings.getShownProgress(ring), 0f);
+    }
+
+    @Test
+    public void ringsAnimateIndependentlyOnTheSameClock() {
+        int a = rings.add(100, 0xFF000000, 4);
+        int b = rings.add(10, 0xFFFFFFFF, 2);
+        rings.setProgress(a, 100, 0);
+        rings.setProgress(b, 10, 250);
+
+        assertTrue(rings.update(500));
+        assertEquals(100f, rings.getShownProgress(a), 0f);
+        assertEquals(5f, rings.getShownProgress(b), 1e-4f);
+        assertFalse(rings.update(750));
+        assertEquals(10f, rings.getShownProgress(b), 0f);
+    }
+
+    @Test
+    public void settleJumpsEveryRingToItsTarget() {
+        int a = rings.add(100, 0, 4);
+        int b = rings.add(100, 0, 4);
+        rings.setProgress(a, 30, 0);
+        rings.setProgress(b, 60, 0);
+        rings.settle();
+        assertFalse(rings.isAnimating());
+        assertEquals(30f, rings.getShownProgress(a), 0f);
+        assertEquals(60f, rings.getShownProgress(b), 0f);
+        assertFalse(rings.update(1));
+    }
+
+    @Test
+    public void removeShiftsLaterRingsAndGrowingKeepsThem() {
+        for(int i = 0; i < 10; i++) {
+            int ring = rings.add(100, i, i + 1);
+            rings.setProgress(ring, i, 0);
+        }
+        rings.settle();
+        rings.remove(3);
+        assertEquals(9, rings.size());
+        assertEquals(2, rings.getColor(2));
+        assertEquals(4, rings.getColor(3));
+        assertEquals(5, rings.getThickness(3));
+        assertEquals(4f, rings.getShownProgress(3), 0f);
+        assertEquals(9, rings.getColor(8));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removedIndexIsOutOfBounds() {
+        rings.add(100, 0, 4);
+        rings.remove(0);
+        rings.getProgress(0);
+    }
+
+    @Test
+    public void segmentSweepFillsSegmentsInOrder() {
+        // 4 segments of 90 degrees with a 10 degree gap, so each is 80 degrees long
+        assertEquals(80f, RingSet.segmentSweep(200, 4, 10, 0), 0f);
+        assertEquals(80f, RingSet.segmentSweep(200, 4, 10, 1), 0f);
+        assertEquals(20f, RingSet.segmentSweep(200, 4, 10, 2), 0f);
+        assertEquals(0f, RingSet.segmentSweep(200, 4, 10, 3), 0f);
+        assertEquals(0f, RingSet.segmentSweep(0, 4, 10, 0), 0f);
+    }
+
+    @Test
+    public void singleSegmentHasNoGap() {
+        int ring = rings.add(100, 0, 4);
+        rings.setSegments(ring, 1, 10);
+        assertEquals(1, rings.getSegments(ring));
+        assertEquals(0f, rings.getSegmentGap(ring), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void segmentsMustBePositive() {
+        rings.setSegments(rings.add(100, 0, 4), 0, 0);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.rahatarmanahmed.cpv;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransferProgressTest {
+
+    static final class Recorder extends PreciseProgressAdapter {
+        final List<Float> updates = new ArrayList<>();
+        final List<Double> preciseUpdates = new ArrayList<>();
+
+        @Override
+        public void onProgressUpdate(float currentProgress) {
+            updates.add(currentProgress);
+        }
+
+        @Override
+        public void onPreciseProgressUpdate(double currentProgress) {
+            preciseUpdates.add(currentProgress);
+        }
+
+        float last() {
+            return updates.get(updates.size() - 1);
+        }
+    }
+
+    @Test
+    public void progressIsOnlyPublishedWhenTheCountCrossesAStep() {
+        Recorder recorder = new Recorder();
+        TransferProgress progress = new TransferProgress(1000, 100f, 10, recorder);
+        progress.add(60);
+        assertTrue(recorder.updates.isEmpty());
+        progress.add(40);
+        assertEquals(1, recorder.updates.size());
+        assertEquals(10f, recorder.last(), 0f);
+        progress.add(99);
+        assertEquals(1, recorder.updates.size());
+        // Crossing several steps at once is a single update
+        progress.add(351);
+        assertEquals(2, recorder.updates.size());
+        assertEquals(55f, recorder.last(), 0f);
+    }
+
+    @Test
+    public void theEndIsPublishedOnceAtTheMaxProgress() {
+        Recorder recorder = new Recorder();
+        // 1050 isn't a multiple of the step of 105, the last update still lands on the total
+        TransferProgress progress = new TransferProgress(1050, 100f, 10, recorder);
+        for(int i = 0; i < 1050; i++)
+            progress.add(1);
+        assertEquals(10, recorder.updates.size());
+        assertEquals(100f, recorder.last(), 0f);
+        // Bytes past the total are counted but never published
+        progress.add(500);
+        assertEquals(10, recorder.updates.size());
+        assertEquals(1550, progress.getBytes());
+    }
+
+    @Test
+    public void updatesAreCappedAtMaxUpdates() {
+        Recorder recorder = new Recorder();
+        TransferProgress progress = new TransferProgress(1 << 20, 100f, recorder);
+        for(int i = 0; i < 1 << 20; i += 100)
+            progress.add(100);
+        assertTrue(recorder.updates.size() <= TransferProgress.DEFAULT_MAX_UPDATES + 1);
+        assertEquals(100f, recorder.last(), 0f);
+    }
+
+    @Test
+    public void nothingIsPublishedForAnUnknownTotal() {
+        Recorder recorder = new Recorder();
+        TransferProgress progress = new TransferProgress(-1, 100f, recorder);
+        progress.add(5000);
+        progress.set(10);
+        assertTrue(recorder.updates.isEmpty());
+        assertEquals(10, progress.getBytes());
+    }
+
+    @Test
+    public void settingTheCountPublishesItAndMovesTheNextStep() {
+        Recorder recorder = new Recorder();
+        TransferProgress progress = new TransferProgress(1000, 100f, 10, recorder);
+        progress.add(450);
+        progress.set(120);
+        assertEquals(12f, recorder.last(), 0f);
+        int updates = recorder.updates.size();
+        // The next step after 120 is 200, not the 500 due before the rewind
+        progress.add(80);
+        assertEquals(updates + 1, recorder.updates.size());
+        assertEquals(20f, recorder.last(), 0f);
+    }
+
+    @Test
+    public void preciseListenersGetTheExactByteCount() {
+        Recorder recorder = new Recorder();
+        long total = 1L << 40;
+        TransferProgress progress = new TransferProgress(total, total, 1 << 30, recorder);
+        // A count a float can't hold
+        progress.add((1L << 24) + 1);
+        assertEquals((double) ((1L << 24) + 1), recorder.preciseUpdates.get(0), 0);
+        assertEquals(recorder.updates.size(), recorder.preciseUpdates.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void atLeastOneUpdateIsRequired() {
+        new TransferProgress(1000, 100f, 0, new Recorder());
+    }
+}
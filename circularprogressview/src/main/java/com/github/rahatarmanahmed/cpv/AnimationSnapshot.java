@@ -0,0 +1,43 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.os.Parcel;
+
+/**
+ * What a {@link CircularProgressDrawable} shows and where its animations are, so a host can continue
+ * from the exact same phase after being detached, hidden or recreated.
+ */
+final class AnimationSnapshot {
+
+    private static final int FLAG_INDETERMINATE = 1;
+    private static final int FLAG_RUNNING = 1 << 1;
+
+    boolean indeterminate, running;
+    double progress, actualProgress;
+    float startAngle;
+    // Play time of the intro swoop, or -1 if it wasn't running
+    long swoopPlayTime = -1;
+    // Position in the indeterminate cycle
+    long indeterminatePlayTime;
+
+    AnimationSnapshot() {}
+
+    AnimationSnapshot(Parcel in) {
+        int flags = in.readInt();
+        indeterminate = (flags & FLAG_INDETERMINATE) != 0;
+        running = (flags & FLAG_RUNNING) != 0;
+        progress = in.readDouble();
+        actualProgress = in.readDouble();
+        startAngle = in.readFloat();
+        swoopPlayTime = in.readLong();
+        indeterminatePlayTime = in.readLong();
+    }
+
+    void writeToParcel(Parcel out) {
+        out.writeInt((indeterminate ? FLAG_INDETERMINATE : 0) | (running ? FLAG_RUNNING : 0));
+        out.writeDouble(progress);
+        out.writeDouble(actualProgress);
+        out.writeFloat(startAngle);
+        out.writeLong(swoopPlayTime);
+        out.writeLong(indeterminatePlayTime);
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * Draws the arc of a {@link CircularProgressDrawable}. Renderers trade memory for drawing time in different ways,
+ * and which is fastest depends on the device, so they can be swapped with
+ * {@link CircularProgressDrawable#setArcRenderer(ArcRenderer)} and timed with a {@link CostListener}.
+ * A renderer instance may keep caches for the arc it draws, so it should only be used by one drawable.
+ * Paints with a shader, such as gradient arcs, are passed with a start angle of 0 on a canvas already turned to the
+ * arc's start, so renderers that turn the canvas themselves draw them right.
+ *
+ * @see DrawArcRenderer
+ * @see PathArcRenderer
+ * @see SpriteArcRenderer
+ */
+public interface ArcRenderer {
+
+    /**
+     * Draws an arc, the same way {@link Canvas#drawArc(RectF, float, float, boolean, Paint)} would without a center.
+     * @param canvas the canvas to draw on
+     * @param oval the bounds of the oval the arc is part of
+     * @param startAngle where the arc starts, in degrees clockwise from 3 o'clock
+     * @param sweepAngle the angle the arc covers, in degrees
+     * @param paint the stroke paint to draw with
+     */
+    void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint);
+
+    /**
+     * Drops any cached geometry or bitmaps. Called when the renderer is replaced; caches are rebuilt when needed.
+     */
+    void release();
+
+    /**
+     * Receives how long each arc took to draw, to compare renderers on a device.
+     */
+    interface CostListener {
+        /**
+         * @param renderer the renderer that drew the arc
+         * @param nanos the time spent drawing, in nanoseconds
+         */
+        void onArcRendered(ArcRenderer renderer, long nanos);
+    }
+}
@@ -0,0 +1,1451 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.SweepGradient;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A Drawable that draws and animates a Material circular progress indicator.
+ * This holds all the drawing and animation logic of {@link CircularProgressView}, so it can be used
+ * anywhere a Drawable can (ImageViews, list rows, toolbar icons) without the cost of an extra View.
+ * Drawables created from the same {@link Drawable.ConstantState}, such as those loaded from one resource, share their
+ * configuration until it changes: a shared configuration is never modified, and a drawable copies it before its first
+ * change or when {@link #mutate()} is called, so changing one never affects another.
+ */
+public class CircularProgressDrawable extends Drawable implements Animatable {
+
+    /** The default minimum movement of the arc's ends, in pixels, before an animation frame is redrawn. */
+    public static final float DEFAULT_INVALIDATION_THRESHOLD = RedrawFilter.DEFAULT_THRESHOLD;
+
+    // Every live drawable, for the process-wide metrics
+    private static final Map<CircularProgressDrawable, Boolean> liveDrawables = new WeakHashMap<>();
+    private static volatile boolean tracingEnabled;
+
+    private CircularProgressState state;
+    // The current mode, initially the one of the state
+    private boolean isIndeterminate;
+
+    // Created on the first draw, so inflating views that are never drawn stays cheap
+    private Paint paint;
+    private ColorFilter colorFilter;
+    private ArcRenderer arcRenderer = new DrawArcRenderer();
+    private ArcRenderer.CostListener renderCostListener;
+    private final RectF arcBounds = new RectF();
+    private int alpha = 0xFF;
+    // Gradient of the arc, built once per arc bounds and colors. It never moves: gradient arcs are drawn
+    // from 0 degrees on a canvas turned to the arc's start, since changing a shader's matrix rebuilds it on API 26+.
+    private SweepGradient gradient;
+
+    // The progress set by the host, as a double so large values such as byte counts stay exact
+    private double currentProgress;
+    // Draws currentProgress directly instead of the animated progress (e.g. in a layout preview)
+    private boolean previewMode;
+
+    private final ListenerDispatcher listeners = new ListenerDispatcher();
+    // onProgressUpdate is delivered at most once per interval when throttled, with the latest progress
+    private long progressUpdateInterval;
+    private long lastProgressUpdateTime;
+    private boolean progressUpdateScheduled;
+
+    private final Runnable dispatchProgressUpdate = new Runnable() {
+        @Override
+        public void run() {
+            progressUpdateScheduled = false;
+            lastProgressUpdateTime = uptimeMillis();
+            listeners.dispatchProgressUpdate(currentProgress);
+        }
+    };
+
+    // The intro swoop, progress and indeterminate animations of the arc, stepped by the frames of ticker().
+    // Frames only invalidate the arc's stroke bounds, and nothing when the arc moved less than the threshold
+    // or the frame-rate cap was reached.
+    private final ArcAnimation arcAnimation = new ArcAnimation(new ArcAnimation.Listener() {
+        @Override
+        public void onInvalidateArc(boolean wholeArc) {
+            invalidateArc(wholeArc);
+        }
+
+        @Override
+        public void onProgressAnimationEnd() {
+            listeners.dispatchProgressUpdateEnd(currentProgress);
+        }
+
+        @Override
+        public void onLoop() {
+            listeners.dispatchAnimationReset();
+        }
+    }, SharedFrameTicker.getInstance());
+    // Shared pre-rendered frames, looked up lazily and dropped whenever the size of the arc changes.
+    // A configuration that doesn't fit in the cache is remembered so it isn't looked up again every frame.
+    private IndeterminateFrameCache.Frames cachedFrames;
+    private boolean framesUncacheable;
+    // Tints the cached alpha masks with the arc's color, alpha and color filter
+    private Paint bitmapPaint;
+
+    private boolean invalidatingArc;
+    private final Rect arcDirtyBounds = new Rect();
+    private final RectF dirtyArcBounds = new RectF();
+    private final RectF drawnArcBounds = new RectF();
+    private final float[] boundsScratch = new float[4];
+
+    // Metrics, besides the frames and invalidations counted by arcAnimation
+    private long framesDrawn, animatorUpdates, drawTimeNanos, animatorUpdateTimeNanos;
+
+    // Time source for the animations and callback timing, null for the system clocks
+    private AnimationClock animationClock;
+
+    // Concentric rings inside the main arc, all animated by the one ringFrame callback.
+    // They are timed on the ticker's frame times, minus ringClockOffset to leave out the time spent paused.
+    private RingSet rings;
+    private boolean ringsRunning;
+    private long ringClockOffset;
+    private long pausedRingTime = -1;
+    private Paint ringPaint;
+    private final RectF ringBounds = new RectF();
+
+    private final FrameTicker.FrameCallback ringFrame = new FrameTicker.FrameCallback() {
+        @Override
+        public void doFrame(long frameTime) {
+            if(!ringsRunning)
+                return;
+            long start = System.nanoTime();
+            // Every ring advances on the same frame; the callback is removed once they have all arrived
+            if(!rings.update(frameTime - ringClockOffset))
+                stopRings();
+            invalidateSelf();
+            recordAnimatorUpdate(start);
+        }
+    };
+
+    /**
+     * Creates a drawable with the default configuration, using the theme's accent color if available.
+     * @param context the context to resolve default values from
+     */
+    public CircularProgressDrawable(Context context) {
+        this(CircularProgressState.obtain(context, null, 0));
+    }
+
+    /**
+     * Creates a drawable with the given configuration, which may be shared with other drawables.
+     */
+    CircularProgressDrawable(CircularProgressState state) {
+        this.state = state;
+        currentProgress = state.progress;
+        isIndeterminate = state.isIndeterminate;
+        arcAnimation.setIndeterminate(isIndeterminate);
+        arcAnimation.setStartAngle(state.startAngle);
+        arcAnimation.setSwoopDuration(state.animSwoopDuration);
+        arcAnimation.setSyncDuration(state.animSyncDuration);
+        arcAnimation.setIndeterminateAnimation(state.animDuration, state.animSteps);
+        arcAnimation.setMaxProgress(state.maxProgress);
+        arcAnimation.setProgressSmoothing(state.progressSmoothing);
+        arcAnimation.setPhaseSynchronized(state.phaseSynchronized);
+        synchronized (liveDrawables) {
+            liveDrawables.put(this, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        updateArcBounds();
+    }
+
+    private void updateArcBounds()
+    {
+        Rect bounds = getBounds();
+        int thickness = state.thickness;
+        arcBounds.set(bounds.left + thickness, bounds.top + thickness, bounds.right - thickness, bounds.bottom - thickness);
+        arcAnimation.setRadius(arcBounds.width() / 2f);
+        discardCachedFrames();
+        discardGradient();
+    }
+
+    private void discardGradient()
+    {
+        gradient = null;
+        if(paint != null)
+            paint.setShader(null);
+    }
+
+    private void discardCachedFrames()
+    {
+        cachedFrames = null;
+        framesUncacheable = false;
+    }
+
+    private void updatePaint()
+    {
+        if(bitmapPaint != null) {
+            bitmapPaint.setColor(state.color);
+            if(alpha != 0xFF)
+                bitmapPaint.setAlpha(bitmapPaint.getAlpha() * alpha / 0xFF);
+        }
+        if(paint == null)
+            return;
+        paint.setColor(state.color);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(state.thickness);
+        paint.setStrokeCap(Paint.Cap.BUTT);
+        if(alpha != 0xFF)
+            paint.setAlpha(paint.getAlpha() * alpha / 0xFF);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        long start = System.nanoTime();
+        beginTrace("CircularProgressDrawable#draw");
+        drawArc(canvas);
+        endTrace();
+        framesDrawn++;
+        drawTimeNanos += System.nanoTime() - start;
+    }
+
+    private void drawArc(Canvas canvas)
+    {
+        if(paint == null) {
+            paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColorFilter(colorFilter);
+            updatePaint();
+        }
+
+        // Remember what is on screen, so later invalidations know what needs to be redrawn
+        float drawnStart = getArcStart();
+        float drawnSweep = getArcSweep();
+        arcAnimation.onDrawn(drawnStart, drawnSweep);
+
+        // Draw the arc. Cached frames are tinted with a single color, so gradient arcs are always rendered.
+        if(isIndeterminate && state.frameCacheEnabled && state.gradientColors == null && !previewMode && obtainCachedFrames())
+            cachedFrames.draw(canvas, arcAnimation.getIndeterminateFraction(), arcBounds.left, arcBounds.top, bitmapPaint);
+        else if(state.gradientColors != null) {
+            float cx = arcBounds.centerX(), cy = arcBounds.centerY();
+            if(gradient == null) {
+                gradient = new SweepGradient(cx, cy, state.gradientColors, null);
+                paint.setShader(gradient);
+            }
+            // Start the gradient where the arc starts by turning the canvas instead of the shader
+            int count = canvas.save();
+            canvas.rotate(drawnStart, cx, cy);
+            renderArc(canvas, 0, drawnSweep);
+            canvas.restoreToCount(count);
+        }
+        else
+            renderArc(canvas, drawnStart, drawnSweep);
+
+        if(rings != null && rings.size() > 0)
+            drawRings(canvas);
+    }
+
+    private void renderArc(Canvas canvas, float start, float sweep)
+    {
+        if(renderCostListener == null) {
+            arcRenderer.draw(canvas, arcBounds, start, sweep, paint);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        arcRenderer.draw(canvas, arcBounds, start, sweep, paint);
+        renderCostListener.onArcRendered(arcRenderer, System.nanoTime() - startNanos);
+    }
+
+    private void drawRings(Canvas canvas)
+    {
+        if(ringPaint == null) {
+            ringPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            ringPaint.setStyle(Paint.Style.STROKE);
+            ringPaint.setStrokeCap(Paint.Cap.BUTT);
+            ringPaint.setColorFilter(colorFilter);
+        }
+        Rect bounds = getBounds();
+        // Distance from the bounds to the inner edge of the previous ring, starting with the main arc
+        float inset = state.thickness * 1.5f;
+        for(int i = 0; i < rings.size(); i++) {
+            int thickness = rings.getThickness(i);
+            // Each ring is separated from the previous one by half its thickness
+            float center = inset + thickness;
+            inset = center + thickness / 2f;
+            ringBounds.set(bounds.left + center, bounds.top + center, bounds.right - center, bounds.bottom - center);
+            if(ringBounds.width() <= 0 || ringBounds.height() <= 0)
+                break;
+
+            ringPaint.setColor(rings.getColor(i));
+            ringPaint.setStrokeWidth(thickness);
+            if(alpha != 0xFF)
+                ringPaint.setAlpha(ringPaint.getAlpha() * alpha / 0xFF);
+
+            float sweep = rings.getSweep(i);
+            int segments = rings.getSegments(i);
+            if(segments == 1) {
+                canvas.drawArc(ringBounds, state.startAngle, sweep, false, ringPaint);
+                continue;
+            }
+            float gap = rings.getSegmentGap(i);
+            float pitch = 360f / segments;
+            for(int segment = 0; segment < segments; segment++) {
+                float filled = RingSet.segmentSweep(sweep, segments, gap, segment);
+                if(filled <= 0)
+                    break;
+                canvas.drawArc(ringBounds, state.startAngle + segment * pitch + gap / 2, filled, false, ringPaint);
+            }
+        }
+    }
+
+    // Looks up the shared frames for the current size of the arc. Returns false if they can't be cached.
+    private boolean obtainCachedFrames()
+    {
+        if(cachedFrames != null && cachedFrames.isEvicted())
+            cachedFrames = null;
+        if(cachedFrames == null && !framesUncacheable) {
+            cachedFrames = IndeterminateFrameCache.obtain(Math.round(arcBounds.width()), state.thickness,
+                    state.animDuration, state.animSteps);
+            framesUncacheable = cachedFrames == null;
+        }
+        if(cachedFrames != null && bitmapPaint == null) {
+            bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            bitmapPaint.setColorFilter(colorFilter);
+            updatePaint();
+        }
+        return cachedFrames != null;
+    }
+
+    private float getArcStart()
+    {
+        return arcAnimation.getStart();
+    }
+
+    private float getArcSweep()
+    {
+        if(previewMode && !isIndeterminate)
+            return ArcGeometry.sweepAngle(currentProgress, state.maxProgress);
+        return arcAnimation.getSweep();
+    }
+
+    // Invalidates only the region covered by the drawn and the new arc, or everything if no arc was drawn yet
+    private void invalidateArc(boolean wholeArc)
+    {
+        if(wholeArc) {
+            invalidateSelf();
+            return;
+        }
+        computeArcBounds(getArcStart(), getArcSweep(), dirtyArcBounds);
+        computeArcBounds(arcAnimation.getDrawnStart(), arcAnimation.getDrawnSweep(), drawnArcBounds);
+        dirtyArcBounds.union(drawnArcBounds);
+        // Cover the stroke plus a pixel for anti-aliasing
+        float outset = state.thickness / 2f + 1f;
+        dirtyArcBounds.inset(-outset, -outset);
+        dirtyArcBounds.roundOut(arcDirtyBounds);
+
+        invalidatingArc = true;
+        invalidateSelf();
+        invalidatingArc = false;
+    }
+
+    // Computes the bounding box of the arc's center line
+    private void computeArcBounds(float start, float sweep, RectF out)
+    {
+        ArcGeometry.computeBounds(arcBounds.centerX(), arcBounds.centerY(), arcBounds.width() / 2f, start, sweep, boundsScratch);
+        out.set(boundsScratch[ArcGeometry.LEFT], boundsScratch[ArcGeometry.TOP],
+                boundsScratch[ArcGeometry.RIGHT], boundsScratch[ArcGeometry.BOTTOM]);
+    }
+
+    @Override
+    public Rect getDirtyBounds() {
+        return invalidatingArc ? arcDirtyBounds : super.getDirtyBounds();
+    }
+
+    /**
+     * Gets the minimum distance, in pixels, either end of the arc must move before an animation frame is redrawn.
+     * @return the invalidation threshold in pixels
+     */
+    public float getInvalidationThreshold() {
+        return arcAnimation.getRedrawFilter().getThreshold();
+    }
+
+    /**
+     * Sets the minimum distance, in pixels, either end of the arc must move before an animation frame is redrawn.
+     * Use 0 to redraw every animation frame.
+     * @param invalidationThreshold the invalidation threshold in pixels
+     */
+    public void setInvalidationThreshold(float invalidationThreshold) {
+        arcAnimation.getRedrawFilter().setThreshold(invalidationThreshold);
+    }
+
+    /**
+     * Gets the maximum number of times per second the animation is redrawn.
+     * @return the frame-rate cap, or 0 if there is none
+     */
+    public int getMaxFrameRate() {
+        return arcAnimation.getRedrawFilter().getMaxFrameRate();
+    }
+
+    /**
+     * Sets the maximum number of times per second the animation is redrawn, e.g. 30 on low-end devices.
+     * The animation keeps its timing, frames in between are just not drawn.
+     * @param maxFrameRate the frame-rate cap, or 0 for no cap
+     */
+    public void setMaxFrameRate(int maxFrameRate) {
+        arcAnimation.getRedrawFilter().setMaxFrameRate(maxFrameRate);
+    }
+
+    /**
+     * @return the clock of the animations and progress callbacks, or null if the system clocks are used
+     */
+    public AnimationClock getAnimationClock() {
+        return animationClock;
+    }
+
+    /**
+     * Sets the clock of the animations and the progress callback throttle. A {@link VirtualClock} also delivers the
+     * animation frames, one each time it advances, so tests can step the animations without a display or waiting
+     * for them in real time; {@link ArcSimulation} does the same for the arc alone on a plain JVM.
+     * Any other clock only times the progress callback throttle, and frames keep coming from the display.
+     * Running animations continue from where they are on the new clock.
+     * @param animationClock the clock, or null to use the system clocks
+     */
+    public void setAnimationClock(AnimationClock animationClock) {
+        FrameTicker oldTicker = ticker();
+        this.animationClock = animationClock;
+        FrameTicker ticker = ticker();
+        if(ticker == oldTicker)
+            return;
+        arcAnimation.setTicker(ticker);
+        if(ringsRunning) {
+            long ringTime = oldTicker.now() - ringClockOffset;
+            oldTicker.removeFrameCallback(ringFrame);
+            ringClockOffset = ticker.now() - ringTime;
+            ticker.addFrameCallback(ringFrame);
+        }
+    }
+
+    private long uptimeMillis()
+    {
+        return animationClock != null ? animationClock.uptimeMillis() : SystemClock.uptimeMillis();
+    }
+
+    // The frames of the animations come from the clock when it is a VirtualClock, and from the display otherwise
+    private FrameTicker ticker()
+    {
+        return animationClock instanceof VirtualClock ? ((VirtualClock) animationClock).getFrameTicker() : SharedFrameTicker.getInstance();
+    }
+
+    private long ringTime()
+    {
+        return ticker().now() - ringClockOffset;
+    }
+
+    /**
+     * @return the number of redraws the animations have requested since the counters were reset
+     */
+    public long getInvalidationCount() {
+        return arcAnimation.getInvalidationCount();
+    }
+
+    /**
+     * @return the number of requested redraws that were skipped because the arc moved less than the threshold
+     * or because of the frame-rate cap
+     */
+    public long getSkippedInvalidationCount() {
+        return arcAnimation.getSkippedInvalidationCount();
+    }
+
+    /**
+     * Resets the invalidation counters to 0.
+     */
+    public void resetInvalidationCounters() {
+        arcAnimation.resetInvalidationCounters();
+    }
+
+    /**
+     * Returns a snapshot of what drawing and animating this drawable has cost since it was created
+     * or its metrics were reset.
+     * @return the metrics of this drawable
+     */
+    public CircularProgressMetrics getMetrics() {
+        return new CircularProgressMetrics(1, framesDrawn, arcAnimation.getInvalidationCount(), arcAnimation.getSkippedInvalidationCount(),
+                animatorUpdates + arcAnimation.getFrameCount(), drawTimeNanos,
+                animatorUpdateTimeNanos + arcAnimation.getFrameTimeNanos());
+    }
+
+    /**
+     * Resets all the metrics of this drawable, including the invalidation counters, to 0.
+     */
+    public void resetMetrics() {
+        resetInvalidationCounters();
+        framesDrawn = 0;
+        animatorUpdates = 0;
+        drawTimeNanos = 0;
+        animatorUpdateTimeNanos = 0;
+        arcAnimation.resetFrameCounters();
+    }
+
+    /**
+     * Returns the combined metrics of every CircularProgressDrawable (and so every CircularProgressView)
+     * still alive in the process. Should be called from the UI thread.
+     * Take a snapshot when a screen is shown and subtract it from one taken when it is hidden
+     * to get that screen's spinner overhead.
+     * @return the process-wide metrics
+     */
+    public static CircularProgressMetrics getAggregateMetrics() {
+        List<CircularProgressDrawable> drawables;
+        synchronized (liveDrawables) {
+            drawables = new ArrayList<>(liveDrawables.keySet());
+        }
+        CircularProgressMetrics total = new CircularProgressMetrics(0, 0, 0, 0, 0, 0, 0);
+        for(CircularProgressDrawable drawable : drawables) {
+            total = total.plus(drawable.getMetrics());
+        }
+        return total;
+    }
+
+    /**
+     * Sets whether drawing, setProgress, and starting, resetting, pausing, resuming and stopping the animation are wrapped
+     * in android.os.Trace sections, so they show up in systrace. Only has an effect on API 18 and up.
+     * @param enabled true to emit trace sections
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        tracingEnabled = enabled;
+    }
+
+    private static void beginTrace(String sectionName)
+    {
+        if(tracingEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+            Trace.beginSection(sectionName);
+    }
+
+    private static void endTrace()
+    {
+        if(tracingEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+            Trace.endSection();
+    }
+
+    private void recordAnimatorUpdate(long startNanos)
+    {
+        animatorUpdates++;
+        animatorUpdateTimeNanos += System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        this.alpha = alpha;
+        updatePaint();
+        invalidateSelf();
+    }
+
+    @Override
+    public int getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        this.colorFilter = colorFilter;
+        if(paint != null)
+            paint.setColorFilter(colorFilter);
+        if(ringPaint != null)
+            ringPaint.setColorFilter(colorFilter);
+        if(bitmapPaint != null)
+            bitmapPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if(!visible)
+            pauseAnimation();
+        else
+            resumeAnimation();
+        return changed;
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+        return super.getChangingConfigurations() | state.changingConfigurations;
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        state.changingConfigurations = getChangingConfigurations();
+        state.shared = true;
+        return state;
+    }
+
+    /**
+     * Makes this drawable's configuration its own, so changing it never affects drawables created from the same
+     * constant state. Setters already copy a shared configuration before changing it, so this only takes the copy early.
+     */
+    @Override
+    public Drawable mutate() {
+        if(super.mutate() == this)
+            editableState();
+        return this;
+    }
+
+    // The state to change, copied first if it was handed out to be shared
+    private CircularProgressState editableState()
+    {
+        if(state.shared)
+            state = new CircularProgressState(state);
+        return state;
+    }
+
+    /**
+     * Finishes the intro swoop and any progress or ring animations, showing the state they were animating to.
+     * The indeterminate animation keeps running.
+     */
+    @Override
+    public void jumpToCurrentState() {
+        arcAnimation.jumpToCurrentState(currentProgress);
+        stopRings();
+        pausedRingTime = -1;
+        if(rings != null)
+            rings.settle();
+        invalidateSelf();
+    }
+
+    // Starts animating when a host is attached or shown again, replaying the intro only if it wasn't shown
+    // since the last reset, or jumped over by showing a state right away
+    void startFromCurrentState() {
+        beginTrace("CircularProgressDrawable#startAnimation");
+        // Rings keep animating to their targets across restarts
+        if(arcAnimation.isPaused())
+            resumeRings();
+        if(arcAnimation.start(currentProgress) && isIndeterminate)
+            listeners.dispatchAnimationReset();
+        invalidateSelf();
+        endTrace();
+    }
+
+    /**
+     * @return the renderer that draws the arc
+     */
+    public ArcRenderer getArcRenderer() {
+        return arcRenderer;
+    }
+
+    /**
+     * Sets the renderer that draws the arc, releasing the caches of the previous one.
+     * The indeterminate frame cache, when enabled, still takes precedence.
+     * @param arcRenderer the renderer to use, or null for the default {@link DrawArcRenderer}
+     */
+    public void setArcRenderer(ArcRenderer arcRenderer) {
+        this.arcRenderer.release();
+        this.arcRenderer = arcRenderer != null ? arcRenderer : new DrawArcRenderer();
+        invalidateSelf();
+    }
+
+    /**
+     * Sets a listener that is told how long the arc renderer took to draw each frame.
+     * @param renderCostListener the listener, or null to stop timing the renderer
+     */
+    public void setRenderCostListener(ArcRenderer.CostListener renderCostListener) {
+        this.renderCostListener = renderCostListener;
+    }
+
+    // Used by hosts that can't run animations, like the layout editor
+    void setPreviewMode(boolean previewMode) {
+        this.previewMode = previewMode;
+        invalidateSelf();
+    }
+
+    /**
+     * Returns the mode of this drawable (determinate or indeterminate).
+     * @return true if this drawable is in indeterminate mode.
+     */
+    public boolean isIndeterminate() {
+        return isIndeterminate;
+    }
+
+    /**
+     * Sets whether this drawable is indeterminate or not.
+     * It will reset the animation if the mode has changed.
+     * @param isIndeterminate True if indeterminate.
+     */
+    public void setIndeterminate(boolean isIndeterminate) {
+        boolean old = this.isIndeterminate;
+        this.isIndeterminate = isIndeterminate;
+        arcAnimation.setIndeterminate(isIndeterminate);
+        if(old != isIndeterminate) {
+            resetAnimation();
+            listeners.dispatchModeChanged(isIndeterminate);
+        }
+    }
+
+    /**
+     * Returns whether the indeterminate animation is kept in phase with every other phase-synchronized spinner.
+     * @return true if the phase is synchronized
+     */
+    public boolean isPhaseSynchronized() {
+        return state.phaseSynchronized;
+    }
+
+    /**
+     * Sets whether the indeterminate animation is kept in phase with every other phase-synchronized spinner in the process,
+     * so spinners shown together move as one instead of drifting apart. Synchronized spinners with the same timing
+     * also share the arc computed for each frame.
+     * @param phaseSynchronized true to synchronize the phase
+     */
+    public void setPhaseSynchronized(boolean phaseSynchronized) {
+        if(state.phaseSynchronized == phaseSynchronized)
+            return;
+        editableState().phaseSynchronized = phaseSynchronized;
+        arcAnimation.setPhaseSynchronized(phaseSynchronized);
+    }
+
+    /**
+     * Get the thickness of the progress bar arc.
+     * @return the thickness of the progress bar arc
+     */
+    public int getThickness() {
+        return state.thickness;
+    }
+
+    /**
+     * Sets the thickness of the progress bar arc.
+     * @param thickness the thickness of the progress bar arc
+     */
+    public void setThickness(int thickness) {
+        editableState().thickness = thickness;
+        updatePaint();
+        updateArcBounds();
+        invalidateSelf();
+    }
+
+    /**
+     *
+     * @return the color of the progress bar
+     */
+    public int getColor() {
+        return state.color;
+    }
+
+    /**
+     * Sets the color of the progress bar.
+     * @param color the color of the progress bar
+     */
+    public void setColor(int color) {
+        editableState().color = color;
+        updatePaint();
+        invalidateSelf();
+    }
+
+    /**
+     * Gets the colors of the arc's gradient.
+     * @return a copy of the gradient colors, or null if the arc is drawn with a solid color
+     */
+    public int[] getGradientColors() {
+        return state.gradientColors == null ? null : state.gradientColors.clone();
+    }
+
+    /**
+     * Draws the arc with a gradient that sweeps along it from its start, instead of a solid color.
+     * The gradient is built once for each size and set of colors and never changes as the arc animates;
+     * the canvas is turned to the arc's start instead, so every {@link ArcRenderer} draws it.
+     * The alpha of the color set with {@link #setColor(int)} still applies.
+     * @param colors the colors of the gradient, at least two, or null to draw with a solid color again
+     */
+    public void setGradientColors(int... colors) {
+        if(colors != null && colors.length < 2)
+            throw new IllegalArgumentException("A gradient needs at least two colors");
+        editableState().gradientColors = colors == null ? null : colors.clone();
+        discardGradient();
+        invalidateSelf();
+    }
+
+    /**
+     * Returns whether the indeterminate animation is drawn from pre-rendered frames.
+     * @return true if the shared frame cache is used
+     */
+    public boolean isFrameCacheEnabled() {
+        return state.frameCacheEnabled;
+    }
+
+    /**
+     * Sets whether the indeterminate animation is drawn from pre-rendered frames.
+     * @param frameCacheEnabled true to use the shared frame cache
+     * @see CircularProgressView#setFrameCacheEnabled(boolean)
+     */
+    public void setFrameCacheEnabled(boolean frameCacheEnabled) {
+        editableState().frameCacheEnabled = frameCacheEnabled;
+        discardCachedFrames();
+        invalidateSelf();
+    }
+
+    /**
+     * Gets the progress value considered to be 100% of the progress bar.
+     * @return the maximum progress
+     */
+    public float getMaxProgress() {
+        return (float) state.maxProgress;
+    }
+
+    /**
+     * Sets the progress value considered to be 100% of the progress bar.
+     * @param maxProgress the maximum progress
+     */
+    public void setMaxProgress(float maxProgress) {
+        setPreciseMaxProgress(maxProgress);
+    }
+
+    /**
+     * Gets the progress value considered to be 100% of the progress bar, as precisely as it was set.
+     * @return the maximum progress
+     */
+    public double getPreciseMaxProgress() {
+        return state.maxProgress;
+    }
+
+    /**
+     * Sets the progress value considered to be 100% of the progress bar, keeping values that a float can't
+     * hold exactly, such as the size of a large file in bytes.
+     * @param maxProgress the maximum progress
+     */
+    public void setPreciseMaxProgress(double maxProgress) {
+        editableState().maxProgress = maxProgress;
+        arcAnimation.setMaxProgress(maxProgress);
+        invalidateSelf();
+    }
+
+    /**
+     * @return current progress
+     */
+    public float getProgress() {
+        return (float) currentProgress;
+    }
+
+    /**
+     * Sets the progress of the progress bar.
+     *
+     * @param currentProgress the new progress.
+     */
+    public void setProgress(float currentProgress) {
+        setPreciseProgress(currentProgress);
+    }
+
+    /**
+     * Sets the progress of the progress bar, optionally showing it right away instead of animating to it.
+     * @param currentProgress the new progress
+     * @param animate false to show the new progress immediately, finishing any running progress animation
+     */
+    public void setProgress(float currentProgress, boolean animate) {
+        setPreciseProgress(currentProgress, animate);
+    }
+
+    /**
+     * Gets the current progress as precisely as it was set.
+     * @return current progress
+     */
+    public double getPreciseProgress() {
+        return currentProgress;
+    }
+
+    /**
+     * Sets the progress of the progress bar, keeping values that a float can't hold exactly, such as a byte count
+     * beyond 16MB. Listeners that implement {@link PreciseProgressListener} receive the exact value.
+     * Longs are held exactly up to 2^53.
+     *
+     * @param currentProgress the new progress.
+     */
+    public void setPreciseProgress(double currentProgress) {
+        beginTrace("CircularProgressDrawable#setProgress");
+        this.currentProgress = currentProgress;
+        // Retarget the determinate animation to approach the new currentProgress
+        if (!isIndeterminate)
+            arcAnimation.animateProgressTo(currentProgress, true);
+        invalidateSelf();
+        dispatchProgressUpdate();
+        endTrace();
+    }
+
+    /**
+     * Sets the progress like {@link #setPreciseProgress(double)}, optionally showing it right away instead of animating to it.
+     * Showing it right away only stops the progress animation; the intro swoop and rings keep animating,
+     * and listeners get onProgressUpdateEnd straight after onProgressUpdate.
+     * @param currentProgress the new progress
+     * @param animate false to show the new progress immediately, finishing any running progress animation
+     */
+    public void setPreciseProgress(double currentProgress, boolean animate) {
+        if(animate) {
+            setPreciseProgress(currentProgress);
+            return;
+        }
+        beginTrace("CircularProgressDrawable#setProgress");
+        this.currentProgress = currentProgress;
+        settleProgress();
+        dispatchProgressUpdate();
+        if(!isIndeterminate)
+            listeners.dispatchProgressUpdateEnd(currentProgress);
+        endTrace();
+    }
+
+    // Shows currentProgress right away, stopping the tween or spring but no other animation
+    private void settleProgress()
+    {
+        arcAnimation.settleProgress(currentProgress);
+        invalidateSelf();
+    }
+
+    /**
+     * Returns whether determinate progress updates are smoothed by a spring instead of a linear animation.
+     * @return true if progress smoothing is enabled
+     */
+    public boolean isProgressSmoothingEnabled() {
+        return state.progressSmoothing;
+    }
+
+    /**
+     * Sets whether determinate progress updates are smoothed by a critically damped spring instead of restarting
+     * a linear animation for each update. The spring keeps its velocity when the progress changes again,
+     * so a stream of updates arriving at any rate moves the arc steadily instead of in stops and starts.
+     * Its responsiveness is set by {@link #setAnimSyncDuration(int)}.
+     * @param enabled true to smooth progress with a spring
+     */
+    public void setProgressSmoothingEnabled(boolean enabled) {
+        if(state.progressSmoothing == enabled)
+            return;
+        editableState().progressSmoothing = enabled;
+        // Continues a running progress animation from the progress currently shown, with the other animation
+        arcAnimation.setProgressSmoothing(enabled);
+    }
+
+    /**
+     * Gets how long a determinate progress update takes to animate.
+     * @return the duration in milliseconds
+     */
+    public int getAnimSyncDuration() {
+        return state.animSyncDuration;
+    }
+
+    /**
+     * Sets how long a determinate progress update takes to animate. With progress smoothing enabled,
+     * this is roughly how long the spring takes to come to rest after a jump in progress.
+     * Takes effect from the next progress update.
+     * @param animSyncDuration the duration in milliseconds
+     */
+    public void setAnimSyncDuration(int animSyncDuration) {
+        editableState().animSyncDuration = animSyncDuration;
+        arcAnimation.setSyncDuration(animSyncDuration);
+    }
+
+    /**
+     * Adds a ring inside the main arc and any existing rings. Each ring has its own progress, color and thickness,
+     * and all rings are drawn in the same pass and animated by the same frame callback.
+     * @param maxProgress the progress at which the ring is full
+     * @param color the color of the ring
+     * @param thickness the thickness of the ring
+     * @return the index of the new ring
+     */
+    public int addRing(double maxProgress, int color, int thickness) {
+        int index = rings().add(maxProgress, color, thickness);
+        invalidateSelf();
+        return index;
+    }
+
+    /**
+     * Removes a ring. Rings inside it move out by one index.
+     * @param index the index of the ring
+     */
+    public void removeRing(int index) {
+        rings().remove(index);
+        invalidateSelf();
+    }
+
+    /**
+     * Removes every ring, leaving only the main arc.
+     */
+    public void clearRings() {
+        if(rings == null)
+            return;
+        rings.clear();
+        stopRings();
+        pausedRingTime = -1;
+        invalidateSelf();
+    }
+
+    /**
+     * @return the number of rings inside the main arc
+     */
+    public int getRingCount() {
+        return rings != null ? rings.size() : 0;
+    }
+
+    /**
+     * Gets the progress a ring is set to.
+     * @param index the index of the ring
+     * @return the progress of the ring
+     */
+    public double getRingProgress(int index) {
+        return rings().getProgress(index);
+    }
+
+    /**
+     * Sets the progress of a ring, animating it there from the progress it currently shows.
+     * @param index the index of the ring
+     * @param progress the new progress
+     */
+    public void setRingProgress(int index, double progress) {
+        RingSet rings = rings();
+        rings.setDuration(state.animSyncDuration);
+        if(previewMode) {
+            rings.setProgress(index, progress, 0);
+            rings.settle();
+            invalidateSelf();
+            return;
+        }
+        if(arcAnimation.isPaused()) {
+            // The ring clock stands still until resumed, and starts animating then
+            if(pausedRingTime < 0)
+                pausedRingTime = ringTime();
+            rings.setProgress(index, progress, pausedRingTime);
+        }
+        else {
+            rings.setProgress(index, progress, ringTime());
+            if(rings.isAnimating() && !ringsRunning)
+                startRings();
+        }
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the color of the ring
+     */
+    public int getRingColor(int index) {
+        return rings().getColor(index);
+    }
+
+    /**
+     * Sets the color of a ring.
+     * @param index the index of the ring
+     * @param color the color of the ring
+     */
+    public void setRingColor(int index, int color) {
+        rings().setColor(index, color);
+        invalidateSelf();
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the thickness of the ring
+     */
+    public int getRingThickness(int index) {
+        return rings().getThickness(index);
+    }
+
+    /**
+     * Sets the thickness of a ring. Rings inside it move to make room.
+     * @param index the index of the ring
+     * @param thickness the thickness of the ring
+     */
+    public void setRingThickness(int index, int thickness) {
+        rings().setThickness(index, thickness);
+        invalidateSelf();
+    }
+
+    /**
+     * Splits a ring into equal segments separated by gaps, for step-by-step progress.
+     * @param index the index of the ring
+     * @param segments the number of segments, 1 for a continuous ring
+     * @param gapDegrees the gap between segments, in degrees
+     */
+    public void setRingSegments(int index, int segments, float gapDegrees) {
+        rings().setSegments(index, segments, gapDegrees);
+        invalidateSelf();
+    }
+
+    private RingSet rings()
+    {
+        if(rings == null)
+            rings = new RingSet();
+        return rings;
+    }
+
+    private void startRings()
+    {
+        ringsRunning = true;
+        ticker().addFrameCallback(ringFrame);
+    }
+
+    private void stopRings()
+    {
+        if(!ringsRunning)
+            return;
+        ringsRunning = false;
+        ticker().removeFrameCallback(ringFrame);
+    }
+
+    // Delivers onProgressUpdate right away, or once the throttle interval has passed since the last delivery
+    private void dispatchProgressUpdate()
+    {
+        if(progressUpdateInterval <= 0 || getCallback() == null) {
+            listeners.dispatchProgressUpdate(currentProgress);
+            return;
+        }
+        if(progressUpdateScheduled)
+            return;
+        long now = uptimeMillis();
+        long next = lastProgressUpdateTime + progressUpdateInterval;
+        if(now >= next) {
+            lastProgressUpdateTime = now;
+            listeners.dispatchProgressUpdate(currentProgress);
+        }
+        else {
+            progressUpdateScheduled = true;
+            // scheduleSelf always takes system uptime, whatever clock the interval is measured on
+            scheduleSelf(dispatchProgressUpdate, SystemClock.uptimeMillis() + next - now);
+        }
+    }
+
+    /**
+     * Gets the minimum time between two onProgressUpdate callbacks.
+     * @return the interval in milliseconds, or 0 if every progress update is delivered
+     */
+    public long getProgressUpdateInterval() {
+        return progressUpdateInterval;
+    }
+
+    /**
+     * Throttles onProgressUpdate so it is delivered at most once per interval, with the latest progress.
+     * Use 16 to deliver it about once per frame, or 0 to deliver every update as it happens (the default).
+     * @param progressUpdateInterval the minimum time between two onProgressUpdate callbacks, in milliseconds
+     */
+    public void setProgressUpdateInterval(long progressUpdateInterval) {
+        this.progressUpdateInterval = Math.max(0, progressUpdateInterval);
+    }
+
+    /**
+     * Register a CircularProgressViewListener with this Drawable
+     * @param listener The listener to register
+     */
+    public void addListener(CircularProgressViewListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Register a CircularProgressViewListener with this Drawable without holding a strong reference to it.
+     * The listener is dropped once nothing else references it.
+     * @param listener The listener to register
+     */
+    public void addWeakListener(CircularProgressViewListener listener) {
+        listeners.addWeak(listener);
+    }
+
+    /**
+     * Unregister a CircularProgressViewListener with this Drawable
+     * @param listener The listener to unregister
+     */
+    public void removeListener(CircularProgressViewListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts the progress bar animation.
+     * (This is an alias of resetAnimation() so it does the same thing.)
+     */
+    @Override
+    public void start() {
+        resetAnimation();
+    }
+
+    /**
+     * Stops the animation. (This is an alias of stopAnimation().)
+     */
+    @Override
+    public void stop() {
+        stopAnimation();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return arcAnimation.isRunning() || ringsRunning;
+    }
+
+    /**
+     * @return true if the animation is paused and can be resumed where it left off.
+     */
+    public boolean isPaused() {
+        return arcAnimation.isPaused();
+    }
+
+    /**
+     * Pauses the animation, keeping its current phase so {@link #resumeAnimation()} can continue from it.
+     * Does nothing if the animation isn't running.
+     */
+    public void pauseAnimation() {
+        if(arcAnimation.isPaused() || !isRunning())
+            return;
+        beginTrace("CircularProgressDrawable#pauseAnimation");
+        arcAnimation.pause();
+        pausedRingTime = -1;
+        if(ringsRunning) {
+            pausedRingTime = ringTime();
+            stopRings();
+        }
+        endTrace();
+    }
+
+    /**
+     * Resumes a paused animation from the phase it was paused at.
+     */
+    public void resumeAnimation() {
+        if(!arcAnimation.isPaused())
+            return;
+        beginTrace("CircularProgressDrawable#resumeAnimation");
+        arcAnimation.resume();
+        resumeRings();
+        endTrace();
+    }
+
+    // Continues the ring clock from where it was paused
+    private void resumeRings()
+    {
+        if(pausedRingTime < 0)
+            return;
+        ringClockOffset = ticker().now() - pausedRingTime;
+        pausedRingTime = -1;
+        startRings();
+    }
+
+    /**
+     * Resets the animation.
+     */
+    public void resetAnimation() {
+        beginTrace("CircularProgressDrawable#resetAnimation");
+        // Rings keep animating to their targets across resets
+        if(arcAnimation.isPaused())
+            resumeRings();
+        // Determinate mode starts with the cool 360 swoop, and the progress animating up from 0
+        arcAnimation.reset(currentProgress);
+        if(isIndeterminate)
+            listeners.dispatchAnimationReset();
+        endTrace();
+    }
+
+    /**
+     * Stops the animation
+     */
+    public void stopAnimation() {
+        beginTrace("CircularProgressDrawable#stopAnimation");
+        arcAnimation.stop();
+        pausedRingTime = -1;
+        if(rings != null) {
+            stopRings();
+            rings.settle();
+            invalidateSelf();
+        }
+        endTrace();
+    }
+
+    // Captures what is shown and where the animations are, for hosts that need to continue from it later
+    AnimationSnapshot snapshot()
+    {
+        AnimationSnapshot snapshot = new AnimationSnapshot();
+        snapshot.indeterminate = isIndeterminate;
+        snapshot.running = arcAnimation.isPaused() || isRunning();
+        snapshot.progress = currentProgress;
+        snapshot.actualProgress = arcAnimation.getActualProgress();
+        snapshot.startAngle = arcAnimation.getStartAngle();
+        snapshot.swoopPlayTime = arcAnimation.getSwoopPlayTime();
+        snapshot.indeterminatePlayTime = arcAnimation.getIndeterminatePlayTime();
+        return snapshot;
+    }
+
+    // Shows a snapshot. If it was animating, it is left paused at the same phase for the host to resume.
+    void restore(AnimationSnapshot snapshot)
+    {
+        stopAnimation();
+        isIndeterminate = snapshot.indeterminate;
+        currentProgress = snapshot.progress;
+        arcAnimation.setIndeterminate(isIndeterminate);
+        arcAnimation.show(snapshot.actualProgress, snapshot.startAngle, snapshot.indeterminatePlayTime);
+        // Continues towards the progress from where it was shown
+        if(snapshot.running)
+            arcAnimation.pauseAt(snapshot.swoopPlayTime, snapshot.indeterminatePlayTime, currentProgress);
+        invalidateSelf();
+    }
+
+    /**
+     * Configuration of a drawable. Once handed out by {@link #getConstantState()} it is shared and never modified again:
+     * drawables created from it use it as is, and any drawable using it copies it before changing it.
+     * The progress and mode are only the initial ones; drawables keep their current progress and mode themselves.
+     */
+    static final class CircularProgressState extends ConstantState {
+        double progress, maxProgress;
+        float startAngle;
+        int thickness, color, animDuration, animSwoopDuration, animSyncDuration, animSteps;
+        boolean isIndeterminate, frameCacheEnabled, phaseSynchronized, progressSmoothing;
+        // Shared between states and never modified, only replaced
+        int[] gradientColors;
+        int changingConfigurations;
+        // True once handed out by getConstantState, after which drawables copy it instead of changing it
+        boolean shared;
+
+        // Only used by CircularProgressView
+        boolean animAutostart;
+
+        // Fully resolved states per theme and default style, for hosts inflated without attributes,
+        // and as the defaults of those inflated with them
+        private static final StyleCache<CircularProgressState> defaults = new StyleCache<>();
+
+        /**
+         * Resolves the state for the given attributes, style and theme.
+         * Everything that only depends on the theme and style is resolved once per theme instance and reused,
+         * so only the attributes themselves are read for each new instance. Views inflated with android:theme
+         * get a new theme each time, and always resolve everything.
+         * @return a new state, owned by the caller
+         */
+        static CircularProgressState obtain(Context context, AttributeSet set, int defStyle) {
+            Resources.Theme theme = context.getTheme();
+            CircularProgressState base = defaults.get(theme, defStyle);
+            if(base == null) {
+                TypedArray a = context.obtainStyledAttributes(null, R.styleable.CircularProgressView, defStyle, 0);
+                base = new CircularProgressState(context, a);
+                a.recycle();
+                defaults.put(theme, defStyle, base);
+            }
+            if(set == null)
+                return new CircularProgressState(base);
+
+            TypedArray a = context.obtainStyledAttributes(set, R.styleable.CircularProgressView, defStyle, 0);
+            CircularProgressState state = new CircularProgressState(base, a);
+            a.recycle();
+            return state;
+        }
+
+        // Resolves every value, falling back to the library's resource defaults and the theme's accent color
+        private CircularProgressState(Context context, TypedArray attrs) {
+            Resources resources = context.getResources();
+
+            // Initialize attributes from styleable attributes
+            progress = attrs.getFloat(R.styleable.CircularProgressView_cpv_progress,
+                    resources.getInteger(R.integer.cpv_default_progress));
+            maxProgress = attrs.getFloat(R.styleable.CircularProgressView_cpv_maxProgress,
+                    resources.getInteger(R.integer.cpv_default_max_progress));
+            thickness = attrs.getDimensionPixelSize(R.styleable.CircularProgressView_cpv_thickness,
+                    resources.getDimensionPixelSize(R.dimen.cpv_default_thickness));
+            isIndeterminate = attrs.getBoolean(R.styleable.CircularProgressView_cpv_indeterminate,
+                    resources.getBoolean(R.bool.cpv_default_is_indeterminate));
+            startAngle = attrs.getFloat(R.styleable.CircularProgressView_cpv_startAngle,
+                    resources.getInteger(R.integer.cpv_default_start_angle));
+
+            int accentColor = resources.getIdentifier("colorAccent", "attr", context.getPackageName());
+
+            // If color explicitly provided
+            if (attrs.hasValue(R.styleable.CircularProgressView_cpv_color)) {
+                color = attrs.getColor(R.styleable.CircularProgressView_cpv_color, resources.getColor(R.color.cpv_default_color));
+            }
+            // If using support library v7 accentColor
+            else if(accentColor != 0) {
+                TypedValue t = new TypedValue();
+                context.getTheme().resolveAttribute(accentColor, t, true);
+                color = t.data;
+            }
+            // If using native accentColor (SDK >21)
+            else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                TypedArray t = context.obtainStyledAttributes(new int[] { android.R.attr.colorAccent });
+                color = t.getColor(0, resources.getColor(R.color.cpv_default_color));
+                t.recycle();
+            }
+            else {
+                //Use default color
+                color = resources.getColor(R.color.cpv_default_color);
+            }
+
+            animDuration = attrs.getInteger(R.styleable.CircularProgressView_cpv_animDuration,
+                    resources.getInteger(R.integer.cpv_default_anim_duration));
+            animSwoopDuration = attrs.getInteger(R.styleable.CircularProgressView_cpv_animSwoopDuration,
+                    resources.getInteger(R.integer.cpv_default_anim_swoop_duration));
+            animSyncDuration = attrs.getInteger(R.styleable.CircularProgressView_cpv_animSyncDuration,
+                    resources.getInteger(R.integer.cpv_default_anim_sync_duration));
+            animSteps = attrs.getInteger(R.styleable.CircularProgressView_cpv_animSteps,
+                    resources.getInteger(R.integer.cpv_default_anim_steps));
+            frameCacheEnabled = attrs.getBoolean(R.styleable.CircularProgressView_cpv_frameCache,
+                    resources.getBoolean(R.bool.cpv_default_frame_cache));
+            animAutostart = attrs.getBoolean(R.styleable.CircularProgressView_cpv_animAutostart,
+                    resources.getBoolean(R.bool.cpv_default_anim_autostart));
+            phaseSynchronized = attrs.getBoolean(R.styleable.CircularProgressView_cpv_syncPhase,
+                    resources.getBoolean(R.bool.cpv_default_sync_phase));
+            progressSmoothing = attrs.getBoolean(R.styleable.CircularProgressView_cpv_progressSmoothing,
+                    resources.getBoolean(R.bool.cpv_default_progress_smoothing));
+            gradientColors = readGradientColors(attrs, null);
+        }
+
+        // Reads the given attributes, falling back to the already resolved defaults
+        private CircularProgressState(CircularProgressState defaults, TypedArray attrs) {
+            progress = attrs.getFloat(R.styleable.CircularProgressView_cpv_progress, (float) defaults.progress);
+            maxProgress = attrs.getFloat(R.styleable.CircularProgressView_cpv_maxProgress, (float) defaults.maxProgress);
+            thickness = attrs.getDimensionPixelSize(R.styleable.CircularProgressView_cpv_thickness, defaults.thickness);
+            isIndeterminate = attrs.getBoolean(R.styleable.CircularProgressView_cpv_indeterminate, defaults.isIndeterminate);
+            startAngle = attrs.getFloat(R.styleable.CircularProgressView_cpv_startAngle, defaults.startAngle);
+            color = attrs.getColor(R.styleable.CircularProgressView_cpv_color, defaults.color);
+            animDuration = attrs.getInteger(R.styleable.CircularProgressView_cpv_animDuration, defaults.animDuration);
+            animSwoopDuration = attrs.getInteger(R.styleable.CircularProgressView_cpv_animSwoopDuration, defaults.animSwoopDuration);
+            animSyncDuration = attrs.getInteger(R.styleable.CircularProgressView_cpv_animSyncDuration, defaults.animSyncDuration);
+            animSteps = attrs.getInteger(R.styleable.CircularProgressView_cpv_animSteps, defaults.animSteps);
+            frameCacheEnabled = attrs.getBoolean(R.styleable.CircularProgressView_cpv_frameCache, defaults.frameCacheEnabled);
+            animAutostart = attrs.getBoolean(R.styleable.CircularProgressView_cpv_animAutostart, defaults.animAutostart);
+            phaseSynchronized = attrs.getBoolean(R.styleable.CircularProgressView_cpv_syncPhase, defaults.phaseSynchronized);
+            progressSmoothing = attrs.getBoolean(R.styleable.CircularProgressView_cpv_progressSmoothing, defaults.progressSmoothing);
+            gradientColors = readGradientColors(attrs, defaults.gradientColors);
+        }
+
+        private static int[] readGradientColors(TypedArray attrs, int[] defaultColors) {
+            int id = attrs.getResourceId(R.styleable.CircularProgressView_cpv_gradientColors, 0);
+            if(id == 0)
+                return defaultColors;
+            int[] colors = attrs.getResources().getIntArray(id);
+            return colors.length >= 2 ? colors : null;
+        }
+
+        CircularProgressState(CircularProgressState orig) {
+            progress = orig.progress;
+            maxProgress = orig.maxProgress;
+            startAngle = orig.startAngle;
+            thickness = orig.thickness;
+            color = orig.color;
+            animDuration = orig.animDuration;
+            animSwoopDuration = orig.animSwoopDuration;
+            animSyncDuration = orig.animSyncDuration;
+            animSteps = orig.animSteps;
+            isIndeterminate = orig.isIndeterminate;
+            frameCacheEnabled = orig.frameCacheEnabled;
+            animAutostart = orig.animAutostart;
+            phaseSynchronized = orig.phaseSynchronized;
+            progressSmoothing = orig.progressSmoothing;
+            gradientColors = orig.gradientColors;
+            changingConfigurations = orig.changingConfigurations;
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new CircularProgressDrawable(this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return changingConfigurations;
+        }
+    }
+}
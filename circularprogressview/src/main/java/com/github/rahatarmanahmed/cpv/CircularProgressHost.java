@@ -0,0 +1,461 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single View that shows many small progress indicators, such as the tiles of a dashboard, without a View per indicator.
+ * Items are added and updated by id, each with its own position, size, mode and progress. One frame callback drives
+ * every item, only the items that moved are invalidated, and all of them are drawn in one onDraw, with one Paint per
+ * distinct color and thickness in use.
+ * <p>
+ * Items take their defaults (color, thickness, max progress and animation timings) from the same attributes and theme
+ * as {@link CircularProgressView}. Their frames come from the same process-wide ticker as every
+ * {@link CircularProgressDrawable}, or from a {@link VirtualClock} given to {@link #setAnimationClock(AnimationClock)},
+ * and indeterminate items all spin in phase with each other and with every phase-synchronized view.
+ * Must only be used from the main thread.
+ */
+public class CircularProgressHost extends View {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private CircularProgressDrawable.CircularProgressState defaults;
+
+    // Progress, max progress, color and thickness of every item, animated together
+    private final RingSet items = new RingSet();
+    // The rest of each item, at the same index as in items
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] left = new int[INITIAL_CAPACITY];
+    private int[] top = new int[INITIAL_CAPACITY];
+    private int[] size = new int[INITIAL_CAPACITY];
+    private boolean[] indeterminate = new boolean[INITIAL_CAPACITY];
+    private float[] drawnSweep = new float[INITIAL_CAPACITY];
+    private Paint[] itemPaints = new Paint[INITIAL_CAPACITY];
+    private int indeterminateCount;
+
+    private final List<Paint> paints = new ArrayList<>();
+    private final RectF oval = new RectF();
+
+    // Progress animations are timed on the ticker's frame times, minus itemClockOffset to carry them over
+    // when the clock changes. The indeterminate arc is shared with every synchronized spinner on the same ticker.
+    private AnimationClock animationClock;
+    private long itemClockOffset;
+    private boolean progressFramePosted, indeterminateRegistered;
+    private boolean attached;
+    private float arcStart, arcSweep;
+
+    private final FrameTicker.FrameCallback progressFrame = new FrameTicker.FrameCallback() {
+        @Override
+        public void doFrame(long frameTime) {
+            if(!progressFramePosted)
+                return;
+            boolean progressing = items.update(frameTime - itemClockOffset);
+            for(int i = 0; i < items.size(); i++) {
+                if(!indeterminate[i] && items.getSweep(i) != drawnSweep[i])
+                    invalidateItem(i);
+            }
+            if(!progressing) {
+                progressFramePosted = false;
+                ticker().removeFrameCallback(this);
+            }
+        }
+    };
+
+    private final FrameTicker.Client indeterminateClient = new FrameTicker.Client() {
+        @Override
+        public void onFrame(float cycleFraction, IndeterminateArc arc) {
+            setArc(arc);
+            for(int i = 0; i < items.size(); i++) {
+                if(indeterminate[i])
+                    invalidateItem(i);
+            }
+        }
+
+        @Override
+        public void onLoop() {
+        }
+    };
+
+    public CircularProgressHost(Context context) {
+        super(context);
+        init(null, 0);
+    }
+
+    public CircularProgressHost(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs, 0);
+    }
+
+    public CircularProgressHost(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        init(attrs, defStyle);
+    }
+
+    protected void init(AttributeSet attrs, int defStyle) {
+        defaults = CircularProgressDrawable.CircularProgressState.obtain(getContext(), attrs, defStyle);
+        items.setDuration(defaults.animSyncDuration);
+        IndeterminateArc arc = new IndeterminateArc();
+        arc.set(0f, defaults.animSteps);
+        setArc(arc);
+    }
+
+    /**
+     * Adds an item with the default color, thickness and max progress, and no progress.
+     * If an item with the id already exists, it is moved instead.
+     * @param id the id of the item
+     * @param left the left edge of the item, inside the padding
+     * @param top the top edge of the item, inside the padding
+     * @param size the width and height of the item
+     */
+    public void addItem(long id, int left, int top, int size) {
+        if(indexOf(id) >= 0) {
+            setItemBounds(id, left, top, size);
+            return;
+        }
+        int index = items.add(defaults.maxProgress, defaults.color, defaults.thickness);
+        if(index == ids.length)
+            grow();
+        ids[index] = id;
+        this.left[index] = left;
+        this.top[index] = top;
+        this.size[index] = size;
+        indeterminate[index] = false;
+        drawnSweep[index] = 0;
+        itemPaints[index] = paintFor(defaults.color, defaults.thickness);
+        invalidateItem(index);
+    }
+
+    /**
+     * Removes an item. Does nothing if there is no item with the id.
+     * @param id the id of the item
+     */
+    public void removeItem(long id) {
+        int index = indexOf(id);
+        if(index < 0)
+            return;
+        invalidateItem(index);
+        if(indeterminate[index])
+            indeterminateCount--;
+        Paint paint = itemPaints[index];
+        items.remove(index);
+        int moved = items.size() - index;
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(left, index + 1, left, index, moved);
+        System.arraycopy(top, index + 1, top, index, moved);
+        System.arraycopy(size, index + 1, size, index, moved);
+        System.arraycopy(indeterminate, index + 1, indeterminate, index, moved);
+        System.arraycopy(drawnSweep, index + 1, drawnSweep, index, moved);
+        System.arraycopy(itemPaints, index + 1, itemPaints, index, moved);
+        itemPaints[items.size()] = null;
+        releasePaint(paint);
+        updateAnimation();
+    }
+
+    /**
+     * Removes every item.
+     */
+    public void clearItems() {
+        items.clear();
+        Arrays.fill(itemPaints, null);
+        paints.clear();
+        indeterminateCount = 0;
+        stopAnimation();
+        invalidate();
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * @param id the id of the item
+     * @return true if there is an item with the id
+     */
+    public boolean hasItem(long id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Moves or resizes an item.
+     * @param id the id of the item
+     * @param left the left edge of the item, inside the padding
+     * @param top the top edge of the item, inside the padding
+     * @param size the width and height of the item
+     */
+    public void setItemBounds(long id, int left, int top, int size) {
+        int index = checkedIndexOf(id);
+        invalidateItem(index);
+        this.left[index] = left;
+        this.top[index] = top;
+        this.size[index] = size;
+        invalidateItem(index);
+    }
+
+    /**
+     * @param id the id of the item
+     * @return true if the item is indeterminate
+     */
+    public boolean isItemIndeterminate(long id) {
+        return indeterminate[checkedIndexOf(id)];
+    }
+
+    /**
+     * Sets whether an item spins indeterminately or shows its progress.
+     * @param id the id of the item
+     * @param isIndeterminate true to spin indeterminately
+     */
+    public void setItemIndeterminate(long id, boolean isIndeterminate) {
+        int index = checkedIndexOf(id);
+        if(indeterminate[index] == isIndeterminate)
+            return;
+        indeterminate[index] = isIndeterminate;
+        indeterminateCount += isIndeterminate ? 1 : -1;
+        invalidateItem(index);
+        updateAnimation();
+    }
+
+    /**
+     * @param id the id of the item
+     * @return the progress of the item
+     */
+    public double getItemProgress(long id) {
+        return items.getProgress(checkedIndexOf(id));
+    }
+
+    /**
+     * Sets the progress of an item, which animates to it like {@link CircularProgressView#setProgress(float)}.
+     * @param id the id of the item
+     * @param progress the new progress
+     */
+    public void setItemProgress(long id, double progress) {
+        int index = checkedIndexOf(id);
+        items.setProgress(index, progress, itemTime());
+        if(!attached) {
+            items.settle();
+            invalidateItem(index);
+        }
+        else
+            updateAnimation();
+    }
+
+    /**
+     * Sets the progress value considered to be 100% of an item.
+     * @param id the id of the item
+     * @param maxProgress the maximum progress
+     */
+    public void setItemMaxProgress(long id, double maxProgress) {
+        int index = checkedIndexOf(id);
+        items.setMaxProgress(index, maxProgress);
+        invalidateItem(index);
+    }
+
+    /**
+     * Sets the color of an item.
+     * @param id the id of the item
+     * @param color the color of the item
+     */
+    public void setItemColor(long id, int color) {
+        int index = checkedIndexOf(id);
+        items.setColor(index, color);
+        setItemPaint(index, paintFor(color, items.getThickness(index)));
+        invalidateItem(index);
+    }
+
+    /**
+     * Sets the thickness of an item's arc.
+     * @param id the id of the item
+     * @param thickness the thickness of the arc
+     */
+    public void setItemThickness(long id, int thickness) {
+        int index = checkedIndexOf(id);
+        items.setThickness(index, thickness);
+        setItemPaint(index, paintFor(items.getColor(index), thickness));
+        invalidateItem(index);
+    }
+
+    /**
+     * @return the clock of the animations, or null if the system clocks are used
+     */
+    public AnimationClock getAnimationClock() {
+        return animationClock;
+    }
+
+    /**
+     * Sets the clock of the animations, like {@link CircularProgressView#setAnimationClock(AnimationClock)}.
+     * A {@link VirtualClock} delivers the frames of every item, one each time it advances; with any other clock
+     * the frames keep coming from the display. Running animations continue from where they are on the new clock.
+     * @param animationClock the clock, or null to use the system clocks
+     */
+    public void setAnimationClock(AnimationClock animationClock) {
+        long itemTime = itemTime();
+        stopAnimation();
+        this.animationClock = animationClock;
+        itemClockOffset = ticker().now() - itemTime;
+        updateAnimation();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attached = true;
+        updateAnimation();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        attached = false;
+        stopAnimation();
+        items.settle();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int paddingLeft = getPaddingLeft(), paddingTop = getPaddingTop();
+        for(int i = 0; i < items.size(); i++) {
+            int thickness = items.getThickness(i);
+            float itemLeft = paddingLeft + left[i], itemTop = paddingTop + top[i];
+            oval.set(itemLeft + thickness, itemTop + thickness, itemLeft + size[i] - thickness, itemTop + size[i] - thickness);
+            if(indeterminate[i])
+                canvas.drawArc(oval, arcStart, arcSweep, false, itemPaints[i]);
+            else {
+                float sweep = items.getSweep(i);
+                canvas.drawArc(oval, defaults.startAngle, sweep, false, itemPaints[i]);
+                drawnSweep[i] = sweep;
+            }
+        }
+    }
+
+    // Follows the ticker's frames while anything moves and the view is attached
+    private void updateAnimation()
+    {
+        if(!attached)
+            return;
+        FrameTicker ticker = ticker();
+        if(!progressFramePosted && items.isAnimating()) {
+            progressFramePosted = true;
+            ticker.addFrameCallback(progressFrame);
+        }
+        if(indeterminateRegistered != indeterminateCount > 0) {
+            indeterminateRegistered = indeterminateCount > 0;
+            if(indeterminateRegistered) {
+                ticker.register(indeterminateClient, IndeterminateArc.cycleDuration(defaults.animDuration, defaults.animSteps),
+                        defaults.animSteps, FrameTicker.SYNCHRONIZED_START);
+            }
+            else
+                ticker.unregister(indeterminateClient);
+        }
+    }
+
+    private void stopAnimation()
+    {
+        FrameTicker ticker = ticker();
+        if(progressFramePosted) {
+            progressFramePosted = false;
+            ticker.removeFrameCallback(progressFrame);
+        }
+        if(indeterminateRegistered) {
+            indeterminateRegistered = false;
+            ticker.unregister(indeterminateClient);
+        }
+    }
+
+    // The frames come from the clock when it is a VirtualClock, and from the display otherwise
+    private FrameTicker ticker()
+    {
+        return animationClock instanceof VirtualClock ? ((VirtualClock) animationClock).getFrameTicker() : SharedFrameTicker.getInstance();
+    }
+
+    private long itemTime()
+    {
+        return ticker().now() - itemClockOffset;
+    }
+
+    private void setArc(IndeterminateArc arc)
+    {
+        arcStart = arc.startAngle + arc.rotateOffset;
+        arcSweep = arc.sweep;
+    }
+
+    private void invalidateItem(int index)
+    {
+        int itemLeft = getPaddingLeft() + left[index], itemTop = getPaddingTop() + top[index];
+        invalidate(itemLeft, itemTop, itemLeft + size[index], itemTop + size[index]);
+    }
+
+    // The shared stroke paint for a color and thickness
+    private Paint paintFor(int color, int thickness)
+    {
+        for(int i = 0; i < paints.size(); i++) {
+            Paint paint = paints.get(i);
+            if(paint.getColor() == color && paint.getStrokeWidth() == thickness)
+                return paint;
+        }
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.BUTT);
+        paint.setColor(color);
+        paint.setStrokeWidth(thickness);
+        paints.add(paint);
+        return paint;
+    }
+
+    private void setItemPaint(int index, Paint paint)
+    {
+        Paint old = itemPaints[index];
+        itemPaints[index] = paint;
+        if(old != paint)
+            releasePaint(old);
+    }
+
+    // Drops a paint once no item uses it, so changing colors doesn't keep a paint per color ever used
+    private void releasePaint(Paint paint)
+    {
+        for(int i = 0; i < items.size(); i++) {
+            if(itemPaints[i] == paint)
+                return;
+        }
+        paints.remove(paint);
+    }
+
+    private int indexOf(long id)
+    {
+        for(int i = 0; i < items.size(); i++) {
+            if(ids[i] == id)
+                return i;
+        }
+        return -1;
+    }
+
+    private int checkedIndexOf(long id)
+    {
+        int index = indexOf(id);
+        if(index < 0)
+            throw new IllegalArgumentException("No item with id " + id);
+        return index;
+    }
+
+    private void grow()
+    {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        size = Arrays.copyOf(size, capacity);
+        indeterminate = Arrays.copyOf(indeterminate, capacity);
+        drawnSweep = Arrays.copyOf(drawnSweep, capacity);
+        itemPaints = Arrays.copyOf(itemPaints, capacity);
+    }
+}
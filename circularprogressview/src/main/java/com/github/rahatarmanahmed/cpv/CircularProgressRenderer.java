@@ -0,0 +1,246 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.SweepGradient;
+
+/**
+ * Draws the frames of a circular progress indicator without a View, for notifications, app widgets and exported images.
+ * Frames are drawn with the same arc math as {@link CircularProgressDrawable}, for any progress or any time
+ * in the indeterminate animation, into caller provided canvases or bitmaps. Nothing is allocated per frame.
+ * A renderer is not thread-safe; use one per thread.
+ */
+public final class CircularProgressRenderer {
+
+    private final CircularProgressDrawable.CircularProgressState state;
+    private float progress;
+    private boolean isIndeterminate;
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF oval = new RectF();
+    private final IndeterminateArc arc = new IndeterminateArc();
+    private final Canvas bitmapCanvas = new Canvas();
+    // Gradient for the colors and center it was built for, rebuilt only when either changes.
+    // It never moves: the canvas is turned to the arc's start instead.
+    private SweepGradient gradient;
+    private int[] gradientColors;
+    private float gradientX, gradientY;
+
+    /**
+     * Creates a renderer with the default configuration, using the theme's accent color if available.
+     * @param context the context to resolve default values from
+     */
+    public CircularProgressRenderer(Context context) {
+        this(CircularProgressDrawable.CircularProgressState.obtain(context, null, 0));
+        progress = (float) state.progress;
+        isIndeterminate = state.isIndeterminate;
+    }
+
+    /**
+     * Creates a renderer that draws frames looking like the given drawable, including its current progress and mode.
+     * Later changes to the drawable do not affect the renderer.
+     * @param template the drawable to copy the configuration of
+     */
+    public CircularProgressRenderer(CircularProgressDrawable template) {
+        this(new CircularProgressDrawable.CircularProgressState(
+                (CircularProgressDrawable.CircularProgressState) template.getConstantState()));
+        progress = template.getProgress();
+        isIndeterminate = template.isIndeterminate();
+    }
+
+    private CircularProgressRenderer(CircularProgressDrawable.CircularProgressState state) {
+        this.state = state;
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.BUTT);
+    }
+
+    /**
+     * @return true if indeterminate frames are drawn
+     */
+    public boolean isIndeterminate() {
+        return isIndeterminate;
+    }
+
+    /**
+     * Sets whether indeterminate frames, which depend on time, or determinate frames, which depend on progress, are drawn.
+     * @param isIndeterminate true for indeterminate frames
+     */
+    public void setIndeterminate(boolean isIndeterminate) {
+        this.isIndeterminate = isIndeterminate;
+    }
+
+    /**
+     * @return the progress determinate frames show
+     */
+    public float getProgress() {
+        return progress;
+    }
+
+    /**
+     * Sets the progress determinate frames show. Unlike the drawable, there is no animation to it.
+     * @param progress the progress to draw
+     */
+    public void setProgress(float progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * @return the maximum progress
+     */
+    public float getMaxProgress() {
+        return (float) state.maxProgress;
+    }
+
+    /**
+     * Sets the maximum progress, what's considered 100% of the arc.
+     * @param maxProgress the maximum progress
+     */
+    public void setMaxProgress(float maxProgress) {
+        state.maxProgress = maxProgress;
+    }
+
+    /**
+     * @return the color of the arc
+     */
+    public int getColor() {
+        return state.color;
+    }
+
+    /**
+     * Sets the color of the arc.
+     * @param color the color of the arc
+     */
+    public void setColor(int color) {
+        state.color = color;
+    }
+
+    /**
+     * @return a copy of the gradient colors, or null if frames are drawn with a solid color
+     */
+    public int[] getGradientColors() {
+        return state.gradientColors == null ? null : state.gradientColors.clone();
+    }
+
+    /**
+     * @param colors the colors of the gradient drawn along the arc, at least two, or null to use the solid color
+     * @see CircularProgressDrawable#setGradientColors(int...)
+     */
+    public void setGradientColors(int... colors) {
+        if(colors != null && colors.length < 2)
+            throw new IllegalArgumentException("A gradient needs at least two colors");
+        state.gradientColors = colors == null ? null : colors.clone();
+    }
+
+    /**
+     * @return the thickness of the arc
+     */
+    public int getThickness() {
+        return state.thickness;
+    }
+
+    /**
+     * Sets the thickness of the arc.
+     * @param thickness the thickness of the arc
+     */
+    public void setThickness(int thickness) {
+        state.thickness = thickness;
+    }
+
+    /**
+     * Returns the length of one loop of the indeterminate animation. Frames a whole number of cycles apart are identical.
+     * @return the cycle duration in milliseconds
+     */
+    public long getCycleDuration() {
+        return IndeterminateArc.cycleDuration(state.animDuration, state.animSteps);
+    }
+
+    /**
+     * Draws one frame into a square area of a canvas, the same way a drawable with these bounds would.
+     * @param canvas the canvas to draw into
+     * @param left the left edge of the area
+     * @param top the top edge of the area
+     * @param size the width and height of the area
+     * @param time the time in the indeterminate animation in milliseconds, ignored by determinate frames
+     */
+    public void draw(Canvas canvas, float left, float top, float size, long time) {
+        int thickness = state.thickness;
+        oval.set(left + thickness, top + thickness, left + size - thickness, top + size - thickness);
+        paint.setColor(state.color);
+        paint.setStrokeWidth(thickness);
+
+        float start, sweep;
+        if(isIndeterminate) {
+            long cycleDuration = getCycleDuration();
+            float cycleFraction = 0;
+            if(cycleDuration > 0) {
+                long cycleTime = time % cycleDuration;
+                if(cycleTime < 0)
+                    cycleTime += cycleDuration;
+                cycleFraction = (float) cycleTime / cycleDuration;
+            }
+            arc.set(cycleFraction, state.animSteps);
+            start = arc.startAngle + arc.rotateOffset;
+            sweep = arc.sweep;
+        }
+        else {
+            start = state.startAngle;
+            sweep = ArcGeometry.sweepAngle(progress, (float) state.maxProgress);
+        }
+        if(!updateGradient()) {
+            canvas.drawArc(oval, start, sweep, false, paint);
+            return;
+        }
+        // Start the gradient where the arc starts by turning the canvas instead of the shader
+        int count = canvas.save();
+        canvas.rotate(start, oval.centerX(), oval.centerY());
+        canvas.drawArc(oval, 0, sweep, false, paint);
+        canvas.restoreToCount(count);
+    }
+
+    // Sets the paint's shader for the current colors and oval, returning false for a solid color
+    private boolean updateGradient()
+    {
+        if(state.gradientColors == null) {
+            paint.setShader(null);
+            return false;
+        }
+        float cx = oval.centerX(), cy = oval.centerY();
+        if(gradient == null || gradientColors != state.gradientColors || gradientX != cx || gradientY != cy) {
+            gradient = new SweepGradient(cx, cy, state.gradientColors, null);
+            gradientColors = state.gradientColors;
+            gradientX = cx;
+            gradientY = cy;
+        }
+        paint.setShader(gradient);
+        return true;
+    }
+
+    /**
+     * Clears a bitmap and draws one frame into its top left square.
+     * @param bitmap a mutable bitmap to draw into, reused by the caller between frames
+     * @param time the time in the indeterminate animation in milliseconds, ignored by determinate frames
+     * @return the given bitmap
+     */
+    public Bitmap render(Bitmap bitmap, long time) {
+        bitmap.eraseColor(Color.TRANSPARENT);
+        bitmapCanvas.setBitmap(bitmap);
+        draw(bitmapCanvas, 0, 0, Math.min(bitmap.getWidth(), bitmap.getHeight()), time);
+        bitmapCanvas.setBitmap(null);
+        return bitmap;
+    }
+
+    /**
+     * Renders a sequence of frames, such as one loop of the indeterminate animation for an animated image.
+     * @param frames mutable bitmaps to draw the frames into, in order
+     * @param startTime the time of the first frame in milliseconds
+     * @param frameInterval the time between frames in milliseconds
+     */
+    public void renderFrames(Bitmap[] frames, long startTime, long frameInterval) {
+        for(int i = 0; i < frames.length; i++)
+            render(frames[i], startTime + i * frameInterval);
+    }
+}
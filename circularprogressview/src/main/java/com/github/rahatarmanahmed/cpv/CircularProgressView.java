@@ -1,50 +1,76 @@
 package com.github.rahatarmanahmed.cpv;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.RectF;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.provider.Settings;
 import android.util.AttributeSet;
-import android.util.Log;
-import android.util.TypedValue;
 import android.view.View;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.LinearInterpolator;
-
-import java.util.ArrayList;
-import java.util.List;
+import android.view.ViewTreeObserver;
 
 
 /**
- * TODO: document your custom view class.
+ * A View that hosts a {@link CircularProgressDrawable}, which does all the drawing and animation.
+ * It handles the XML attributes, sizing, and starting/stopping the animation with the view's lifecycle.
  */
 public class CircularProgressView extends View {
 
-    private static final float INDETERMINANT_MIN_SWEEP = 15f;
-    
-    private Paint paint;
+    private CircularProgressDrawable drawable;
     private int size = 0;
-    private RectF bounds;
 
-    private boolean isIndeterminate, autostartAnimation;
-    private float currentProgress, maxProgress, indeterminateSweep, indeterminateRotateOffset;
-    private int thickness, color, animDuration, animSwoopDuration, animSyncDuration, animSteps;
+    private boolean autostartAnimation;
+
+    // Pauses the animation while the view can't be seen, and resumes it where it left off
+    private boolean autoPauseEnabled = true;
+    private boolean animatorsDisabled;
+    private final Rect visibleRect = new Rect();
+
+    private final ViewTreeObserver.OnScrollChangedListener scrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            updateAutoPause();
+        }
+    };
+
+    private final ViewTreeObserver.OnGlobalLayoutListener globalLayoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+        @Override
+        public void onGlobalLayout() {
+            updateAutoPause();
+        }
+    };
+
+    // Latest progress published from any thread, applied once per frame on the UI thread.
+    // Posted through the main thread's FrameExecutor, which unlike View.post doesn't drop it while detached.
+    private final LatestProgress pendingProgress = new LatestProgress(new PreciseProgressAdapter() {
+        @Override
+        public void onPreciseProgressUpdate(double currentProgress) {
+            setPreciseProgress(currentProgress);
+        }
+    }, FrameExecutor.getInstance());
+
+    // Progress combined from parallel workers, summed when a frame applies it.
+    // The aggregator only notifies again once collected, so the apply must never be dropped: it goes through FrameExecutor too.
+    private volatile ProgressAggregator progressAggregator;
 
-    private List<CircularProgressViewListener> listeners;
-    // Animation related stuff
-    private float startAngle;
-    private float actualProgress;
-    private ValueAnimator startAngleRotate;
-    private ValueAnimator progressAnimator;
-    private AnimatorSet indeterminateAnimator;
-    private float initialStartAngle;
+    private final ProgressAggregator.Listener aggregatorListener = new ProgressAggregator.Listener() {
+        @Override
+        public void onProgressChanged(ProgressAggregator aggregator) {
+            FrameExecutor.getInstance().execute(applyAggregatedProgress);
+        }
+    };
+
+    private final Runnable applyAggregatedProgress = new Runnable() {
+        @Override
+        public void run() {
+            ProgressAggregator aggregator = progressAggregator;
+            if(aggregator != null)
+                setPreciseProgress(aggregator.collect() * getPreciseMaxProgress());
+        }
+    };
 
     public CircularProgressView(Context context) {
         super(context);
@@ -62,69 +88,18 @@ public class CircularProgressView extends View {
     }
 
     protected void init(AttributeSet attrs, int defStyle) {
-        listeners = new ArrayList<>();
-
         initAttributes(attrs, defStyle);
-
-        paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        updatePaint();
-
-        bounds = new RectF();
+        drawable.setCallback(this);
+        drawable.setPreviewMode(isInEditMode());
     }
 
     private void initAttributes(AttributeSet attrs, int defStyle)
     {
-        final TypedArray a = getContext().obtainStyledAttributes(
-                attrs, R.styleable.CircularProgressView, defStyle, 0);
-
-        Resources resources = getResources();
-
-        // Initialize attributes from styleable attributes
-        currentProgress = a.getFloat(R.styleable.CircularProgressView_cpv_progress,
-                resources.getInteger(R.integer.cpv_default_progress));
-        maxProgress = a.getFloat(R.styleable.CircularProgressView_cpv_maxProgress,
-                resources.getInteger(R.integer.cpv_default_max_progress));
-        thickness = a.getDimensionPixelSize(R.styleable.CircularProgressView_cpv_thickness,
-                resources.getDimensionPixelSize(R.dimen.cpv_default_thickness));
-        isIndeterminate = a.getBoolean(R.styleable.CircularProgressView_cpv_indeterminate,
-                resources.getBoolean(R.bool.cpv_default_is_indeterminate));
-        autostartAnimation = a.getBoolean(R.styleable.CircularProgressView_cpv_animAutostart,
-                resources.getBoolean(R.bool.cpv_default_anim_autostart));
-        initialStartAngle = a.getFloat(R.styleable.CircularProgressView_cpv_startAngle,
-                resources.getInteger(R.integer.cpv_default_start_angle));
-        startAngle = initialStartAngle;
-
-        int accentColor = getContext().getResources().getIdentifier("colorAccent", "attr", getContext().getPackageName());
-
-        // If color explicitly provided
-        if (a.hasValue(R.styleable.CircularProgressView_cpv_color)) {
-            color = a.getColor(R.styleable.CircularProgressView_cpv_color, resources.getColor(R.color.cpv_default_color));
-        }
-        // If using support library v7 accentColor
-        else if(accentColor != 0) {
-            TypedValue t = new TypedValue();
-            getContext().getTheme().resolveAttribute(accentColor, t, true);
-            color = t.data;
-        }
-        // If using native accentColor (SDK >21)
-        else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            TypedArray t = getContext().obtainStyledAttributes(new int[] { android.R.attr.colorAccent });
-            color = t.getColor(0, resources.getColor(R.color.cpv_default_color));
-        }
-        else {
-            //Use default color
-            color = resources.getColor(R.color.cpv_default_color);
-        }
-
-        animDuration = a.getInteger(R.styleable.CircularProgressView_cpv_animDuration,
-                resources.getInteger(R.integer.cpv_default_anim_duration));
-        animSwoopDuration = a.getInteger(R.styleable.CircularProgressView_cpv_animSwoopDuration,
-                resources.getInteger(R.integer.cpv_default_anim_swoop_duration));
-        animSyncDuration = a.getInteger(R.styleable.CircularProgressView_cpv_animSyncDuration,
-                resources.getInteger(R.integer.cpv_default_anim_sync_duration));
-        animSteps = a.getInteger(R.styleable.CircularProgressView_cpv_animSteps,
-                resources.getInteger(R.integer.cpv_default_anim_steps));
-        a.recycle();
+        // Defaults are resolved once per theme and style, so only the attributes themselves are read here
+        CircularProgressDrawable.CircularProgressState state =
+                CircularProgressDrawable.CircularProgressState.obtain(getContext(), attrs, defStyle);
+        drawable = new CircularProgressDrawable(state);
+        autostartAnimation = state.animAutostart;
     }
 
     @Override
@@ -150,27 +125,43 @@ public class CircularProgressView extends View {
     {
         int paddingLeft = getPaddingLeft();
         int paddingTop = getPaddingTop();
-        bounds.set(paddingLeft + thickness, paddingTop + thickness, size - paddingLeft - thickness, size - paddingTop - thickness);
-    }
-
-    private void updatePaint()
-    {
-        paint.setColor(color);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(thickness);
-        paint.setStrokeCap(Paint.Cap.BUTT);
+        drawable.setBounds(paddingLeft, paddingTop, size - paddingLeft, size - paddingTop);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        drawable.draw(canvas);
+    }
 
-        // Draw the arc
-        float sweepAngle = (isInEditMode()) ? currentProgress/maxProgress*360 : actualProgress/maxProgress*360;
-        if(!isIndeterminate)
-            canvas.drawArc(bounds, startAngle, sweepAngle, false, paint);
-        else
-            canvas.drawArc(bounds, startAngle + indeterminateRotateOffset, indeterminateSweep, false, paint);
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return who == drawable || super.verifyDrawable(who);
+    }
+
+    /**
+     * Returns the drawable that draws and animates this view's progress bar.
+     * @return the CircularProgressDrawable hosted by this view
+     */
+    public CircularProgressDrawable getProgressDrawable() {
+        return drawable;
+    }
+
+    /**
+     * Returns a snapshot of what drawing and animating this view has cost since it was created
+     * or its metrics were reset.
+     * @return the metrics of this view
+     * @see CircularProgressDrawable#getAggregateMetrics()
+     */
+    public CircularProgressMetrics getMetrics() {
+        return drawable.getMetrics();
+    }
+
+    /**
+     * Resets all the metrics of this view to 0.
+     */
+    public void resetMetrics() {
+        drawable.resetMetrics();
     }
 
     /**
@@ -178,7 +169,7 @@ public class CircularProgressView extends View {
      * @return true if this view is in indeterminate mode.
      */
     public boolean isIndeterminate() {
-        return isIndeterminate;
+        return drawable.isIndeterminate();
     }
 
     /**
@@ -187,16 +178,23 @@ public class CircularProgressView extends View {
      * @param isIndeterminate True if indeterminate.
      */
     public void setIndeterminate(boolean isIndeterminate) {
-        boolean old = this.isIndeterminate;
-        boolean reset = this.isIndeterminate != isIndeterminate;
-        this.isIndeterminate = isIndeterminate;
-        if (reset)
-            resetAnimation();
-        if(old != isIndeterminate) {
-            for(CircularProgressViewListener listener : listeners) {
-                listener.onModeChanged(isIndeterminate);
-            }
-        }
+        drawable.setIndeterminate(isIndeterminate);
+    }
+
+    /**
+     * Returns whether the indeterminate animation is kept in phase with every other phase-synchronized spinner.
+     * @return true if the phase is synchronized
+     */
+    public boolean isPhaseSynchronized() {
+        return drawable.isPhaseSynchronized();
+    }
+
+    /**
+     * Sets whether the indeterminate animation is kept in phase with every other phase-synchronized spinner in the process.
+     * @param phaseSynchronized true to synchronize the phase
+     */
+    public void setPhaseSynchronized(boolean phaseSynchronized) {
+        drawable.setPhaseSynchronized(phaseSynchronized);
     }
 
     /**
@@ -204,7 +202,7 @@ public class CircularProgressView extends View {
      * @return the thickness of the progress bar arc
      */
     public int getThickness() {
-        return thickness;
+        return drawable.getThickness();
     }
 
     /**
@@ -212,10 +210,7 @@ public class CircularProgressView extends View {
      * @param thickness the thickness of the progress bar arc
      */
     public void setThickness(int thickness) {
-        this.thickness = thickness;
-        updatePaint();
-        updateBounds();
-        invalidate();
+        drawable.setThickness(thickness);
     }
 
     /**
@@ -223,7 +218,7 @@ public class CircularProgressView extends View {
      * @return the color of the progress bar
      */
     public int getColor() {
-        return color;
+        return drawable.getColor();
     }
 
     /**
@@ -231,9 +226,114 @@ public class CircularProgressView extends View {
      * @param color the color of the progress bar
      */
     public void setColor(int color) {
-        this.color = color;
-        updatePaint();
-        invalidate();
+        drawable.setColor(color);
+    }
+
+    /**
+     * Gets the colors of the progress bar's gradient.
+     * @return a copy of the gradient colors, or null if the progress bar has a solid color
+     */
+    public int[] getGradientColors() {
+        return drawable.getGradientColors();
+    }
+
+    /**
+     * Draws the progress bar with a gradient that sweeps along the arc from its start, instead of a solid color.
+     * @param colors the colors of the gradient, at least two, or null to use the solid color again
+     * @see CircularProgressDrawable#setGradientColors(int...)
+     */
+    public void setGradientColors(int... colors) {
+        drawable.setGradientColors(colors);
+    }
+
+    /**
+     * Returns whether the indeterminate animation is drawn from pre-rendered frames.
+     * @return true if the shared frame cache is used
+     */
+    public boolean isFrameCacheEnabled() {
+        return drawable.isFrameCacheEnabled();
+    }
+
+    /**
+     * Sets whether the indeterminate animation is drawn from pre-rendered frames.
+     * Frames are shared through {@link IndeterminateFrameCache} by all spinners with the same size,
+     * thickness and timing, so many identical spinners cost one rasterization plus bitmap blits.
+     * Spinners too large for the cache's budget keep drawing the arc directly.
+     * @param frameCacheEnabled true to use the shared frame cache
+     */
+    public void setFrameCacheEnabled(boolean frameCacheEnabled) {
+        drawable.setFrameCacheEnabled(frameCacheEnabled);
+    }
+
+    /**
+     * Gets the minimum distance, in pixels, either end of the arc must move before an animation frame is redrawn.
+     * @return the invalidation threshold in pixels
+     */
+    public float getInvalidationThreshold() {
+        return drawable.getInvalidationThreshold();
+    }
+
+    /**
+     * Sets the minimum distance, in pixels, either end of the arc must move before an animation frame is redrawn.
+     * Use 0 to redraw every animation frame.
+     * @param invalidationThreshold the invalidation threshold in pixels
+     */
+    public void setInvalidationThreshold(float invalidationThreshold) {
+        drawable.setInvalidationThreshold(invalidationThreshold);
+    }
+
+    /**
+     * Gets the maximum number of times per second the animation is redrawn.
+     * @return the frame-rate cap, or 0 if there is none
+     */
+    public int getMaxFrameRate() {
+        return drawable.getMaxFrameRate();
+    }
+
+    /**
+     * Sets the maximum number of times per second the animation is redrawn, e.g. 30 on low-end devices.
+     * @param maxFrameRate the frame-rate cap, or 0 for no cap
+     */
+    public void setMaxFrameRate(int maxFrameRate) {
+        drawable.setMaxFrameRate(maxFrameRate);
+    }
+
+    /**
+     * @return the clock of the animations and progress callbacks, or null if the system clocks are used
+     */
+    public AnimationClock getAnimationClock() {
+        return drawable.getAnimationClock();
+    }
+
+    /**
+     * Sets the clock of the animations and the progress callback throttle. A {@link VirtualClock} also delivers the
+     * animation frames, one each time it advances, so tests can step the animations; any other clock only times the
+     * progress callback throttle.
+     * @param animationClock the clock, or null to use the system clocks
+     */
+    public void setAnimationClock(AnimationClock animationClock) {
+        drawable.setAnimationClock(animationClock);
+    }
+
+    /**
+     * @return true if the animation automatically pauses while the view can't be seen
+     */
+    public boolean isAutoPauseEnabled() {
+        return autoPauseEnabled;
+    }
+
+    /**
+     * Sets whether the animation automatically pauses while the view can't be seen: when it or a parent is hidden,
+     * its window is hidden or loses focus, it is scrolled off-screen, or animations are turned off in the system settings.
+     * A paused animation resumes where it left off instead of restarting.
+     * @param autoPauseEnabled true to pause the animation automatically
+     */
+    public void setAutoPauseEnabled(boolean autoPauseEnabled) {
+        this.autoPauseEnabled = autoPauseEnabled;
+        if(autoPauseEnabled)
+            updateAutoPause();
+        else
+            drawable.resumeAnimation();
     }
 
     /**
@@ -241,7 +341,7 @@ public class CircularProgressView extends View {
      * @return the maximum progress
      */
     public float getMaxProgress() {
-        return maxProgress;
+        return drawable.getMaxProgress();
     }
 
     /**
@@ -249,15 +349,14 @@ public class CircularProgressView extends View {
      * @param maxProgress the maximum progress
      */
     public void setMaxProgress(float maxProgress) {
-        this.maxProgress = maxProgress;
-        invalidate();
+        drawable.setMaxProgress(maxProgress);
     }
 
     /**
      * @return current progress
      */
     public float getProgress() {
-        return currentProgress;
+        return drawable.getProgress();
     }
 
     /**
@@ -265,46 +364,324 @@ public class CircularProgressView extends View {
      *
      * @param currentProgress the new progress.
      */
-    public void setProgress(final float currentProgress) {
-        this.currentProgress = currentProgress;
-        // Reset the determinate animation to approach the new currentProgress
-        if (!isIndeterminate) {
-            if (progressAnimator != null && progressAnimator.isRunning())
-                progressAnimator.cancel();
-            progressAnimator = ValueAnimator.ofFloat(actualProgress, currentProgress);
-            progressAnimator.setDuration(animSyncDuration);
-            progressAnimator.setInterpolator(new LinearInterpolator());
-            progressAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    actualProgress = (Float) animation.getAnimatedValue();
-                    invalidate();
-                }
-            });
-            progressAnimator.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    for(CircularProgressViewListener listener : listeners) {
-                        listener.onProgressUpdateEnd(currentProgress);
-                    }
-                }
-            });
+    public void setProgress(float currentProgress) {
+        drawable.setProgress(currentProgress);
+    }
 
-            progressAnimator.start();
-        }
-        invalidate();
-        for(CircularProgressViewListener listener : listeners) {
-            listener.onProgressUpdate(currentProgress);
+    /**
+     * Sets the progress of the progress bar, optionally showing it right away instead of animating to it.
+     * Showing it right away only stops the progress animation, and listeners get onProgressUpdateEnd at once.
+     * Once progress is shown right away, like once the intro animation has finished, attaching the view or making it
+     * visible continues from the current state instead of replaying the intro, until {@link #resetAnimation()} is called.
+     * @param currentProgress the new progress
+     * @param animate false to show the new progress immediately
+     */
+    public void setProgress(float currentProgress, boolean animate) {
+        setPreciseProgress(currentProgress, animate);
+    }
+
+    /**
+     * Gets the progress value considered to be 100% of the progress bar, as precisely as it was set.
+     * @return the maximum progress
+     */
+    public double getPreciseMaxProgress() {
+        return drawable.getPreciseMaxProgress();
+    }
+
+    /**
+     * Sets the progress value considered to be 100% of the progress bar, keeping values that a float can't
+     * hold exactly, such as the size of a large file in bytes.
+     * @param maxProgress the maximum progress
+     */
+    public void setPreciseMaxProgress(double maxProgress) {
+        drawable.setPreciseMaxProgress(maxProgress);
+    }
+
+    /**
+     * Gets the current progress as precisely as it was set.
+     * @return current progress
+     */
+    public double getPreciseProgress() {
+        return drawable.getPreciseProgress();
+    }
+
+    /**
+     * Sets the progress of the progress bar, keeping values that a float can't hold exactly, such as a byte count
+     * beyond 16MB. Listeners that implement {@link PreciseProgressListener} receive the exact value.
+     *
+     * @param currentProgress the new progress.
+     */
+    public void setPreciseProgress(double currentProgress) {
+        drawable.setPreciseProgress(currentProgress);
+    }
+
+    /**
+     * Sets the progress like {@link #setPreciseProgress(double)}, optionally showing it right away instead of animating to it.
+     * @param currentProgress the new progress
+     * @param animate false to show the new progress immediately
+     * @see #setProgress(float, boolean)
+     */
+    public void setPreciseProgress(double currentProgress, boolean animate) {
+        drawable.setPreciseProgress(currentProgress, animate);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        drawable.jumpToCurrentState();
+    }
+
+    /**
+     * @return the renderer that draws the arc
+     */
+    public ArcRenderer getArcRenderer() {
+        return drawable.getArcRenderer();
+    }
+
+    /**
+     * Sets the renderer that draws the arc, e.g. a {@link PathArcRenderer} or {@link SpriteArcRenderer}
+     * on devices where they are faster than the default {@link DrawArcRenderer}.
+     * @param arcRenderer the renderer to use, or null for the default
+     */
+    public void setArcRenderer(ArcRenderer arcRenderer) {
+        drawable.setArcRenderer(arcRenderer);
+    }
+
+    /**
+     * Sets a listener that is told how long the arc renderer took to draw each frame.
+     * @param renderCostListener the listener, or null to stop timing the renderer
+     */
+    public void setRenderCostListener(ArcRenderer.CostListener renderCostListener) {
+        drawable.setRenderCostListener(renderCostListener);
+    }
+
+    /**
+     * Returns whether progress updates are smoothed by a spring instead of a linear animation.
+     * @return true if progress smoothing is enabled
+     */
+    public boolean isProgressSmoothingEnabled() {
+        return drawable.isProgressSmoothingEnabled();
+    }
+
+    /**
+     * Sets whether progress updates are smoothed by a spring that keeps its velocity across updates,
+     * instead of restarting a linear animation for each update.
+     * @param enabled true to smooth progress with a spring
+     * @see CircularProgressDrawable#setProgressSmoothingEnabled(boolean)
+     */
+    public void setProgressSmoothingEnabled(boolean enabled) {
+        drawable.setProgressSmoothingEnabled(enabled);
+    }
+
+    /**
+     * Gets how long a progress update takes to animate.
+     * @return the duration in milliseconds
+     */
+    public int getAnimSyncDuration() {
+        return drawable.getAnimSyncDuration();
+    }
+
+    /**
+     * Sets how long a progress update takes to animate, or roughly how long the spring takes to settle when smoothing.
+     * @param animSyncDuration the duration in milliseconds
+     */
+    public void setAnimSyncDuration(int animSyncDuration) {
+        drawable.setAnimSyncDuration(animSyncDuration);
+    }
+
+    /**
+     * Adds a ring inside the main arc and any existing rings, drawn in the same pass as the main arc.
+     * @param maxProgress the progress at which the ring is full
+     * @param color the color of the ring
+     * @param thickness the thickness of the ring
+     * @return the index of the new ring
+     * @see CircularProgressDrawable#addRing(double, int, int)
+     */
+    public int addRing(double maxProgress, int color, int thickness) {
+        return drawable.addRing(maxProgress, color, thickness);
+    }
+
+    /**
+     * Removes a ring. Rings inside it move out by one index.
+     * @param index the index of the ring
+     */
+    public void removeRing(int index) {
+        drawable.removeRing(index);
+    }
+
+    /**
+     * Removes every ring, leaving only the main arc.
+     */
+    public void clearRings() {
+        drawable.clearRings();
+    }
+
+    /**
+     * @return the number of rings inside the main arc
+     */
+    public int getRingCount() {
+        return drawable.getRingCount();
+    }
+
+    /**
+     * Gets the progress a ring is set to.
+     * @param index the index of the ring
+     * @return the progress of the ring
+     */
+    public double getRingProgress(int index) {
+        return drawable.getRingProgress(index);
+    }
+
+    /**
+     * Sets the progress of a ring, animating it there.
+     * @param index the index of the ring
+     * @param progress the new progress
+     */
+    public void setRingProgress(int index, double progress) {
+        drawable.setRingProgress(index, progress);
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the color of the ring
+     */
+    public int getRingColor(int index) {
+        return drawable.getRingColor(index);
+    }
+
+    /**
+     * Sets the color of a ring.
+     * @param index the index of the ring
+     * @param color the color of the ring
+     */
+    public void setRingColor(int index, int color) {
+        drawable.setRingColor(index, color);
+    }
+
+    /**
+     * @param index the index of the ring
+     * @return the thickness of the ring
+     */
+    public int getRingThickness(int index) {
+        return drawable.getRingThickness(index);
+    }
+
+    /**
+     * Sets the thickness of a ring.
+     * @param index the index of the ring
+     * @param thickness the thickness of the ring
+     */
+    public void setRingThickness(int index, int thickness) {
+        drawable.setRingThickness(index, thickness);
+    }
+
+    /**
+     * Splits a ring into equal segments separated by gaps, for step-by-step progress.
+     * @param index the index of the ring
+     * @param segments the number of segments, 1 for a continuous ring
+     * @param gapDegrees the gap between segments, in degrees
+     */
+    public void setRingSegments(int index, int segments, float gapDegrees) {
+        drawable.setRingSegments(index, segments, gapDegrees);
+    }
+
+    /**
+     * Sets the progress of the progress bar from any thread.
+     * Only the latest value is kept, and it is applied on the UI thread at most once per frame,
+     * no matter how often this is called.
+     *
+     * @param currentProgress the new progress.
+     */
+    public void postProgress(float currentProgress) {
+        pendingProgress.publish(currentProgress);
+    }
+
+    /**
+     * Sets the progress from any thread like {@link #postProgress(float)}, keeping values that a float can't hold
+     * exactly like {@link #setPreciseProgress(double)}.
+     *
+     * @param currentProgress the new progress.
+     */
+    public void postPreciseProgress(double currentProgress) {
+        pendingProgress.publish(currentProgress);
+    }
+
+    /**
+     * Creates a subscriber that shows a reactive stream of progress values on this view.
+     * It requests one item per frame and only shows the latest, and switches the view to indeterminate
+     * mode while the progress is unknown (NaN or negative items) and back to determinate for known progress.
+     * Wrap it in the Flow or Reactive Streams subscriber of your pipeline.
+     * @return a new subscriber for this view
+     * @see ProgressSubscriber
+     */
+    public ProgressSubscriber newProgressSubscriber() {
+        return new ProgressSubscriber(new PreciseProgressAdapter() {
+            @Override
+            public void onPreciseProgressUpdate(double currentProgress) {
+                setPreciseProgress(currentProgress);
+            }
+
+            @Override
+            public void onModeChanged(boolean isIndeterminate) {
+                setIndeterminate(isIndeterminate);
+            }
+        }, FrameExecutor.getInstance());
+    }
+
+    /**
+     * Shows the combined progress of a {@link ProgressAggregator}, which workers on any thread report into.
+     * The parts are summed at most once per frame, however often they are reported.
+     * @param aggregator the aggregator to show, or null to stop showing it
+     */
+    public void setProgressAggregator(ProgressAggregator aggregator) {
+        if(progressAggregator != null)
+            progressAggregator.setListener(null);
+        progressAggregator = aggregator;
+        if(aggregator != null) {
+            aggregator.setListener(aggregatorListener);
+            setPreciseProgress(aggregator.collect() * getPreciseMaxProgress());
         }
     }
 
+    /**
+     * @return the aggregator whose progress is shown, or null
+     */
+    public ProgressAggregator getProgressAggregator() {
+        return progressAggregator;
+    }
+
     /**
      * Register a CircularProgressViewListener with this View
      * @param listener The listener to register
      */
     public void addListener(CircularProgressViewListener listener) {
-        if(listener != null)
-            listeners.add(listener);
+        drawable.addListener(listener);
+    }
+
+    /**
+     * Register a CircularProgressViewListener with this View without holding a strong reference to it.
+     * The listener is dropped once nothing else references it.
+     * @param listener The listener to register
+     */
+    public void addWeakListener(CircularProgressViewListener listener) {
+        drawable.addWeakListener(listener);
+    }
+
+    /**
+     * Throttles onProgressUpdate so it is delivered at most once per interval, with the latest progress.
+     * Use 16 to deliver it about once per frame, or 0 to deliver every update as it happens (the default).
+     * @param progressUpdateInterval the minimum time between two onProgressUpdate callbacks, in milliseconds
+     */
+    public void setProgressUpdateInterval(long progressUpdateInterval) {
+        drawable.setProgressUpdateInterval(progressUpdateInterval);
+    }
+
+    /**
+     * Gets the minimum time between two onProgressUpdate callbacks.
+     * @return the interval in milliseconds, or 0 if every progress update is delivered
+     */
+    public long getProgressUpdateInterval() {
+        return drawable.getProgressUpdateInterval();
     }
 
     /**
@@ -312,7 +689,7 @@ public class CircularProgressView extends View {
      * @param listener The listener to unregister
      */
     public void removeListener(CircularProgressViewListener listener) {
-        listeners.remove(listener);
+        drawable.removeListener(listener);
     }
 
     /**
@@ -327,82 +704,12 @@ public class CircularProgressView extends View {
      * Resets the animation.
      */
     public void resetAnimation() {
-        // Cancel all the old animators
-        if(startAngleRotate != null && startAngleRotate.isRunning())
-            startAngleRotate.cancel();
-        if(progressAnimator != null && progressAnimator.isRunning())
-            progressAnimator.cancel();
-        if(indeterminateAnimator != null && indeterminateAnimator.isRunning())
-            indeterminateAnimator.cancel();
-
-        // Determinate animation
-        if(!isIndeterminate)
-        {
-            // The cool 360 swoop animation at the start of the animation
-            startAngle = initialStartAngle;
-            startAngleRotate = ValueAnimator.ofFloat(startAngle, startAngle + 360);
-            startAngleRotate.setDuration(animSwoopDuration);
-            startAngleRotate.setInterpolator(new DecelerateInterpolator(2));
-            startAngleRotate.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    startAngle = (Float) animation.getAnimatedValue();
-                    invalidate();
-                }
-            });
-            startAngleRotate.start();
-
-            // The linear animation shown when progress is updated
-            actualProgress = 0f;
-            progressAnimator = ValueAnimator.ofFloat(actualProgress, currentProgress);
-            progressAnimator.setDuration(animSyncDuration);
-            progressAnimator.setInterpolator(new LinearInterpolator());
-            progressAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    actualProgress = (Float) animation.getAnimatedValue();
-                    invalidate();
-                }
-            });
-            progressAnimator.start();
-        }
-        // Indeterminate animation
-        else
-        {
-            indeterminateSweep = INDETERMINANT_MIN_SWEEP;
-            // Build the whole AnimatorSet
-            indeterminateAnimator = new AnimatorSet();
-            AnimatorSet prevSet = null, nextSet;
-            for(int k=0;k<animSteps;k++)
-            {
-                nextSet = createIndeterminateAnimator(k);
-                AnimatorSet.Builder builder = indeterminateAnimator.play(nextSet);
-                if(prevSet != null)
-                    builder.after(prevSet);
-                prevSet = nextSet;
-            }
-
-            // Listen to end of animation so we can infinitely loop
-            indeterminateAnimator.addListener(new AnimatorListenerAdapter() {
-                boolean wasCancelled = false;
-                @Override
-                public void onAnimationCancel(Animator animation) {
-                    wasCancelled = true;
-                }
-
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    if(!wasCancelled)
-                        resetAnimation();
-                }
-            });
-            indeterminateAnimator.start();
-            for(CircularProgressViewListener listener : listeners) {
-                listener.onAnimationReset();
-            }
-        }
-
+        drawable.resetAnimation();
+    }
 
+    // Starts animating on attach or when shown, without replaying an intro that was already shown
+    private void autostart() {
+        drawable.startFromCurrentState();
     }
 
     /**
@@ -410,92 +717,61 @@ public class CircularProgressView extends View {
      */
 
     public void stopAnimation() {
-        if(startAngleRotate != null) {
-            startAngleRotate.cancel();
-            startAngleRotate = null;
-        }
-        if(progressAnimator != null) {
-            progressAnimator.cancel();
-            progressAnimator = null;
-        }
-        if(indeterminateAnimator != null) {
-            indeterminateAnimator.cancel();
-            indeterminateAnimator = null;
-        }
-    }
-
-    // Creates the animators for one step of the animation
-    private AnimatorSet createIndeterminateAnimator(float step)
-    {
-        final float maxSweep = 360f*(animSteps-1)/animSteps + INDETERMINANT_MIN_SWEEP;
-        final float start = -90f + step*(maxSweep-INDETERMINANT_MIN_SWEEP);
-
-        // Extending the front of the arc
-        ValueAnimator frontEndExtend = ValueAnimator.ofFloat(INDETERMINANT_MIN_SWEEP, maxSweep);
-        frontEndExtend.setDuration(animDuration/animSteps/2);
-        frontEndExtend.setInterpolator(new DecelerateInterpolator(1));
-        frontEndExtend.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                indeterminateSweep = (Float) animation.getAnimatedValue();
-                invalidate();
-            }
-        });
-
-        // Overall rotation
-        ValueAnimator rotateAnimator1 = ValueAnimator.ofFloat(step*720f/animSteps, (step+.5f)*720f/animSteps);
-        rotateAnimator1.setDuration(animDuration/animSteps/2);
-        rotateAnimator1.setInterpolator(new LinearInterpolator());
-        rotateAnimator1.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-            indeterminateRotateOffset = (Float) animation.getAnimatedValue();
-            }
-        });
-
-        // Followed by...
-
-        // Retracting the back end of the arc
-        ValueAnimator backEndRetract = ValueAnimator.ofFloat(start, start+maxSweep-INDETERMINANT_MIN_SWEEP);
-        backEndRetract.setDuration(animDuration/animSteps/2);
-        backEndRetract.setInterpolator(new DecelerateInterpolator(1));
-        backEndRetract.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-            startAngle = (Float) animation.getAnimatedValue();
-            indeterminateSweep = maxSweep - startAngle + start;
-            invalidate();
-            }
-        });
-
-        // More overall rotation
-        ValueAnimator rotateAnimator2 = ValueAnimator.ofFloat((step + .5f) * 720f / animSteps, (step + 1) * 720f / animSteps);
-        rotateAnimator2.setDuration(animDuration / animSteps / 2);
-        rotateAnimator2.setInterpolator(new LinearInterpolator());
-        rotateAnimator2.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                indeterminateRotateOffset = (Float) animation.getAnimatedValue();
-            }
-        });
-
-        AnimatorSet set = new AnimatorSet();
-        set.play(frontEndExtend).with(rotateAnimator1);
-        set.play(backEndRetract).with(rotateAnimator2).after(rotateAnimator1);
-        return set;
+        drawable.stopAnimation();
     }
 
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        if(autostartAnimation)
-            startAnimation();
+        animatorsDisabled = getAnimatorDurationScale() == 0f;
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.addOnScrollChangedListener(scrollChangedListener);
+        observer.addOnGlobalLayoutListener(globalLayoutListener);
+        startOnAttach();
     }
 
+    // Continues an animation paused by detaching or restoring, or starts one if autostart is on
+    private void startOnAttach() {
+        if(drawable.isPaused()) {
+            // With auto pause, it resumes once it can be seen
+            if(!autoPauseEnabled)
+                drawable.resumeAnimation();
+        }
+        else if(autostartAnimation)
+            autostart();
+        updateAutoPause();
+    }
+
+    @SuppressWarnings("deprecation")
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        stopAnimation();
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.removeOnScrollChangedListener(scrollChangedListener);
+        observer.removeGlobalOnLayoutListener(globalLayoutListener);
+        // Keep the phase, so reattaching continues where it left off without rebuilding the animators
+        drawable.pauseAnimation();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        savedState.snapshot = drawable.snapshot();
+        return savedState;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if(!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        drawable.restore(savedState.snapshot);
+        // Restored after attaching, e.g. in a fragment, so continue right away
+        if(getWindowToken() != null)
+            startOnAttach();
     }
 
     @Override
@@ -503,12 +779,88 @@ public class CircularProgressView extends View {
         int currentVisibility = getVisibility();
         super.setVisibility(visibility);
         if (visibility != currentVisibility) {
+            // Auto pause already paused or resumed it, but a view that becomes visible still starts animating
             if (visibility == View.VISIBLE){
-                resetAnimation();
-            } else if (visibility == View.GONE || visibility == View.INVISIBLE) {
+                if (!autoPauseEnabled || (!drawable.isRunning() && !drawable.isPaused())) {
+                    autostart();
+                    updateAutoPause();
+                }
+            } else if (!autoPauseEnabled && (visibility == View.GONE || visibility == View.INVISIBLE)) {
                 stopAnimation();
             }
         }
     }
 
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAutoPause();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if(visibility == View.VISIBLE)
+            animatorsDisabled = getAnimatorDurationScale() == 0f;
+        updateAutoPause();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updateAutoPause();
+    }
+
+    // Pauses or resumes the animation depending on whether the view can currently be seen
+    private void updateAutoPause()
+    {
+        if(!autoPauseEnabled || drawable == null)
+            return;
+        boolean canBeSeen = isShown() && getWindowVisibility() == View.VISIBLE && hasWindowFocus()
+                && !animatorsDisabled && getLocalVisibleRect(visibleRect);
+        if(canBeSeen)
+            drawable.resumeAnimation();
+        else
+            drawable.pauseAnimation();
+    }
+
+    // The system animator duration scale, which is 0 when animations are turned off (e.g. by battery saver)
+    private float getAnimatorDurationScale()
+    {
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+            return Settings.Global.getFloat(getContext().getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        return Settings.System.getFloat(getContext().getContentResolver(), "animator_duration_scale", 1f);
+    }
+
+
+    static class SavedState extends BaseSavedState {
+        AnimationSnapshot snapshot;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            snapshot = new AnimationSnapshot(in);
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            snapshot.writeToParcel(out);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 }
@@ -0,0 +1,20 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * Draws the arc with {@link Canvas#drawArc(RectF, float, float, boolean, Paint)} every frame. Keeps no caches.
+ * This is the default renderer.
+ */
+public final class DrawArcRenderer implements ArcRenderer {
+
+    @Override
+    public void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint) {
+        canvas.drawArc(oval, startAngle, sweepAngle, false, paint);
+    }
+
+    @Override
+    public void release() {}
+}
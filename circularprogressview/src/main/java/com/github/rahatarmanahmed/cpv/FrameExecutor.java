@@ -0,0 +1,97 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on the main thread at its next animation frame, whichever thread they come from.
+ * Unlike View.post before API 24, tasks are never dropped while a view is detached, so code that waits for a task
+ * to run before scheduling the next one can't get stuck. Tasks given during one frame run together at the next.
+ */
+final class FrameExecutor implements Executor {
+
+    private static final FrameExecutor instance = new FrameExecutor();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FrameSource source;
+    // Tasks for the next frame, swapped with the ones running so a task can give another for the frame after
+    private ArrayList<Runnable> pending = new ArrayList<>();
+    private ArrayList<Runnable> running = new ArrayList<>();
+    private boolean framePosted;
+
+    private final Runnable postFrame = new Runnable() {
+        @Override
+        public void run() {
+            source.postFrame();
+        }
+    };
+
+    static FrameExecutor getInstance() {
+        return instance;
+    }
+
+    private FrameExecutor() {
+        source = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new ChoreographerSource() : new HandlerSource();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        synchronized (this) {
+            pending.add(command);
+            if(framePosted)
+                return;
+            framePosted = true;
+        }
+        // The frame callback has to be posted from the main thread
+        handler.post(postFrame);
+    }
+
+    private void runTasks() {
+        ArrayList<Runnable> tasks;
+        synchronized (this) {
+            tasks = pending;
+            pending = running;
+            running = tasks;
+            framePosted = false;
+        }
+        for(int i = 0; i < tasks.size(); i++)
+            tasks.get(i).run();
+        tasks.clear();
+    }
+
+    private interface FrameSource {
+        void postFrame();
+    }
+
+    // Only loaded on API 16 and up
+    private final class ChoreographerSource implements FrameSource, Choreographer.FrameCallback {
+        @Override
+        public void postFrame() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            runTasks();
+        }
+    }
+
+    private final class HandlerSource implements FrameSource, Runnable {
+        @Override
+        public void postFrame() {
+            handler.postDelayed(this, ValueAnimator.getFrameDelay());
+        }
+
+        @Override
+        public void run() {
+            runTasks();
+        }
+    }
+}
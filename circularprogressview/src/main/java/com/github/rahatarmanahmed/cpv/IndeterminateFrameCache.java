@@ -0,0 +1,193 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.LruCache;
+
+/**
+ * Process-wide cache of pre-rendered indeterminate animation frames.
+ * Spinners with the same size, thickness and timing share one set of frames whatever their color, so a screen full
+ * of identical spinners only rasterizes the cycle once and then blits bitmaps. Frames are alpha masks, tinted with
+ * the spinner's color, alpha and color filter when drawn.
+ * <p>
+ * Larger spinners get fewer frames per cycle so that a whole cycle fits in the budget, down to about 30 fps.
+ * Only frames already rendered count against the budget, and entries are evicted least recently used first
+ * once it is exceeded.
+ */
+public final class IndeterminateFrameCache {
+
+    /** The default byte budget for all cached frames in the process. */
+    public static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    // Frames are rendered at roughly 60 fps when they fit in the budget
+    private static final int FRAME_INTERVAL_MS = 16;
+    // ...and at no less than about 30 fps when they don't
+    private static final int MAX_FRAME_INTERVAL_MS = 33;
+
+    private static final LruCache<Key, Frames> cache = new LruCache<Key, Frames>(DEFAULT_MAX_BYTES) {
+        @Override
+        protected int sizeOf(Key key, Frames frames) {
+            return frames.accountedBytes;
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, Key key, Frames oldFrames, Frames newFrames) {
+            // Resizing an entry removes and puts it back, which isn't an eviction
+            if(evicted)
+                oldFrames.evict();
+        }
+    };
+
+    private IndeterminateFrameCache() {}
+
+    /**
+     * Sets the maximum number of bytes the cached frames may use, evicting entries if needed.
+     * @param maxBytes the byte budget for all cached frames
+     */
+    public static void setMaxBytes(int maxBytes) {
+        cache.resize(maxBytes);
+    }
+
+    /**
+     * @return the byte budget for all cached frames
+     */
+    public static int getMaxBytes() {
+        return cache.maxSize();
+    }
+
+    /**
+     * Drops all cached frames.
+     */
+    public static void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * Returns the shared frames for the given spinner configuration, or null if a cycle would not fit in the budget
+     * even at the lowest frame rate. Callers should remember a null result until their configuration changes.
+     */
+    static Frames obtain(int diameter, int thickness, int animDuration, int animSteps) {
+        if(diameter <= 0 || animSteps <= 0)
+            return null;
+        Key key = new Key(diameter, thickness, animDuration, animSteps);
+        Frames frames = cache.get(key);
+        if(frames == null) {
+            int side = diameter + 2 * thickness;
+            long frameBytes = (long) side * side;
+            long cycleDuration = IndeterminateArc.cycleDuration(animDuration, animSteps);
+            long minFrames = Math.max(1, cycleDuration / MAX_FRAME_INTERVAL_MS);
+            long maxFrames = Math.max(1, cycleDuration / FRAME_INTERVAL_MS);
+            long budgetFrames = cache.maxSize() / frameBytes;
+            if(budgetFrames < minFrames)
+                return null;
+            frames = new Frames(key, side, (int) Math.min(maxFrames, budgetFrames));
+            cache.put(key, frames);
+        }
+        return frames;
+    }
+
+    // Counts a newly rendered frame against the budget
+    private static void grow(Frames frames, int byteCount)
+    {
+        if(cache.remove(frames.key) != frames) {
+            // Cleared while drawing, so it no longer belongs to the cache
+            frames.evict();
+            return;
+        }
+        frames.accountedBytes += byteCount;
+        cache.put(frames.key, frames);
+    }
+
+    /**
+     * One indeterminate cycle for a single configuration. Frames are rasterized lazily the first time they are drawn.
+     * Once evicted, the frames stop rendering and drawables should obtain new ones.
+     */
+    static final class Frames {
+        private final Key key;
+        private final int side;
+        private Bitmap[] bitmaps;
+        private int accountedBytes;
+
+        Frames(Key key, int side, int frameCount) {
+            this.key = key;
+            this.side = side;
+            bitmaps = new Bitmap[frameCount];
+        }
+
+        /**
+         * @return true if the frames were evicted from the cache and can no longer be drawn
+         */
+        boolean isEvicted() {
+            return bitmaps == null;
+        }
+
+        private void evict() {
+            bitmaps = null;
+        }
+
+        /**
+         * Draws the frame closest to the given loop fraction so that the arc's oval starts at (left, top),
+         * in the color, alpha and color filter of the given paint.
+         */
+        void draw(Canvas canvas, float cycleFraction, float left, float top, Paint bitmapPaint) {
+            int index = (int) (cycleFraction * bitmaps.length);
+            if(index >= bitmaps.length)
+                index = bitmaps.length - 1;
+            else if(index < 0)
+                index = 0;
+            Bitmap bitmap = bitmaps[index];
+            if(bitmap == null) {
+                bitmap = render((float) index / bitmaps.length);
+                bitmaps[index] = bitmap;
+                grow(this, side * side);
+            }
+            canvas.drawBitmap(bitmap, left - key.thickness, top - key.thickness, bitmapPaint);
+        }
+
+        private Bitmap render(float cycleFraction) {
+            Bitmap bitmap = Bitmap.createBitmap(side, side, Bitmap.Config.ALPHA_8);
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(key.thickness);
+            paint.setStrokeCap(Paint.Cap.BUTT);
+            RectF oval = new RectF(key.thickness, key.thickness, key.thickness + key.diameter, key.thickness + key.diameter);
+            IndeterminateArc arc = new IndeterminateArc();
+            arc.set(cycleFraction, key.animSteps);
+            new Canvas(bitmap).drawArc(oval, arc.startAngle + arc.rotateOffset, arc.sweep, false, paint);
+            return bitmap;
+        }
+    }
+
+    private static final class Key {
+        final int diameter, thickness, animDuration, animSteps;
+
+        Key(int diameter, int thickness, int animDuration, int animSteps) {
+            this.diameter = diameter;
+            this.thickness = thickness;
+            this.animDuration = animDuration;
+            this.animSteps = animSteps;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o)
+                return true;
+            if(!(o instanceof Key))
+                return false;
+            Key k = (Key) o;
+            return diameter == k.diameter && thickness == k.thickness
+                    && animDuration == k.animDuration && animSteps == k.animSteps;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = diameter;
+            result = 31 * result + thickness;
+            result = 31 * result + animDuration;
+            result = 31 * result + animSteps;
+            return result;
+        }
+    }
+}
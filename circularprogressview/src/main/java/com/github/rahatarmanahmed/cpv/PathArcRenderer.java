@@ -0,0 +1,57 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * Draws the arc from a cached {@link Path}, rotated into place. The path only depends on the sweep, rounded to a step,
+ * so it is only rebuilt when the sweep or the oval changes; rotation alone, as in the indeterminate spin
+ * or the determinate intro swoop, reuses it. Drawing a cached path can be cheaper than drawArc on some GPUs.
+ * A paint's shader turns with the arc, which is how gradient arcs are drawn: from 0 degrees on a turned canvas.
+ */
+public final class PathArcRenderer implements ArcRenderer {
+
+    /** The default step the sweep is rounded to, in degrees. */
+    public static final float DEFAULT_SWEEP_STEP = .25f;
+
+    private final float sweepStep;
+    private final Path path = new Path();
+    private final RectF pathOval = new RectF();
+    private float pathSweep = Float.NaN;
+
+    public PathArcRenderer() {
+        this(DEFAULT_SWEEP_STEP);
+    }
+
+    /**
+     * @param sweepStep the step the sweep is rounded to, in degrees. Larger steps rebuild the path less often.
+     */
+    public PathArcRenderer(float sweepStep) {
+        if(sweepStep <= 0)
+            throw new IllegalArgumentException("The sweep step must be positive, got " + sweepStep);
+        this.sweepStep = sweepStep;
+    }
+
+    @Override
+    public void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint) {
+        float sweep = Math.round(sweepAngle / sweepStep) * sweepStep;
+        if(sweep != pathSweep || !oval.equals(pathOval)) {
+            path.rewind();
+            path.addArc(oval, 0, sweep);
+            pathOval.set(oval);
+            pathSweep = sweep;
+        }
+        int count = canvas.save();
+        canvas.rotate(startAngle, oval.centerX(), oval.centerY());
+        canvas.drawPath(path, paint);
+        canvas.restoreToCount(count);
+    }
+
+    @Override
+    public void release() {
+        path.rewind();
+        pathSweep = Float.NaN;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.rahatarmanahmed.cpv;
+
+/**
+ * A listener that shows the progress it receives on a {@link CircularProgressView} from any thread,
+ * through {@link CircularProgressView#postPreciseProgress(double)}. Use it as the listener of a {@link TransferProgress}
+ * to show a transfer running on a background thread.
+ * Progress is posted from onPreciseProgressUpdate, so byte counts beyond what a float holds stay exact.
+ */
+public class PostProgressListener extends PreciseProgressAdapter {
+
+    private final CircularProgressView view;
+
+    /**
+     * @param view the view to show the progress on
+     */
+    public PostProgressListener(CircularProgressView view) {
+        this.view = view;
+    }
+
+    @Override
+    public void onPreciseProgressUpdate(double currentProgress) {
+        view.postPreciseProgress(currentProgress);
+    }
+}
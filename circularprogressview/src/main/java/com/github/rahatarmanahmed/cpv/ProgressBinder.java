@@ -0,0 +1,114 @@
+package com.github.rahatarmanahmed.cpv;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the progress of list items, such as RecyclerView rows, and shows it on whichever
+ * {@link CircularProgressView} currently displays each item.
+ * Progress is stored by item id in a {@link ProgressStore}, so thousands of items cost a few primitive arrays.
+ * Binding a recycled view jumps it straight to the item's progress without the intro swoop,
+ * and progress updates for items that aren't bound to a view only change the store.
+ * <p>
+ * Call {@link #bind(CircularProgressView, long)} when a row is bound and {@link #unbind(CircularProgressView)}
+ * when it is recycled. Must only be used from the main thread.
+ */
+public class ProgressBinder {
+
+    private final ProgressStore store;
+    // The views currently showing an item, and the id of the item each one shows
+    private CircularProgressView[] views = new CircularProgressView[8];
+    private long[] ids = new long[8];
+    private int boundCount;
+
+    public ProgressBinder() {
+        store = new ProgressStore();
+    }
+
+    /**
+     * @param expectedItems the number of items to make room for without resizing the store
+     */
+    public ProgressBinder(int expectedItems) {
+        store = new ProgressStore(expectedItems);
+    }
+
+    /**
+     * Shows an item on a view, replacing whatever item it showed before.
+     * The view jumps straight to the item's progress, or 0 if the item has none.
+     * @param view the view displaying the item
+     * @param id the id of the item
+     */
+    public void bind(CircularProgressView view, long id) {
+        int index = indexOf(view);
+        if(index < 0) {
+            if(boundCount == views.length) {
+                views = Arrays.copyOf(views, boundCount * 2);
+                ids = Arrays.copyOf(ids, boundCount * 2);
+            }
+            index = boundCount++;
+            views[index] = view;
+        }
+        ids[index] = id;
+        view.setPreciseProgress(store.get(id, 0), false);
+    }
+
+    /**
+     * Stops showing updates on a view, for example when its row is recycled.
+     * @param view the view to unbind
+     */
+    public void unbind(CircularProgressView view) {
+        int index = indexOf(view);
+        if(index < 0)
+            return;
+        boundCount--;
+        views[index] = views[boundCount];
+        ids[index] = ids[boundCount];
+        views[boundCount] = null;
+    }
+
+    /**
+     * Sets the progress of an item. Views showing the item animate to it.
+     * @param id the id of the item
+     * @param progress the new progress
+     */
+    public void setProgress(long id, double progress) {
+        store.put(id, progress);
+        for(int i = 0; i < boundCount; i++) {
+            if(ids[i] == id)
+                views[i].setPreciseProgress(progress);
+        }
+    }
+
+    /**
+     * Gets the progress of an item.
+     * @param id the id of the item
+     * @return the progress of the item, or 0 if it has none
+     */
+    public double getProgress(long id) {
+        return store.get(id, 0);
+    }
+
+    /**
+     * Forgets the progress of an item, for example when it is removed from the list.
+     * @param id the id of the item
+     */
+    public void remove(long id) {
+        store.remove(id);
+    }
+
+    /**
+     * Forgets the progress of every item and unbinds every view.
+     */
+    public void clear() {
+        store.clear();
+        Arrays.fill(views, 0, boundCount, null);
+        boundCount = 0;
+    }
+
+    private int indexOf(CircularProgressView view) {
+        for(int i = 0; i < boundCount; i++) {
+            if(views[i] == view)
+                return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.animation.AnimationUtils;
+
+/**
+ * The process-wide {@link FrameTicker} driving the animations of every running {@link CircularProgressDrawable}
+ * that isn't given a {@link VirtualClock}, with frames from the Choreographer, or the main Handler before API 16.
+ * Must only be used from the main thread.
+ */
+final class SharedFrameTicker {
+
+    private static FrameTicker instance;
+
+    private SharedFrameTicker() {}
+
+    static FrameTicker getInstance() {
+        if(instance == null)
+            instance = new FrameTicker(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                    ? new ChoreographerSource() : new HandlerSource());
+        return instance;
+    }
+
+    // Only loaded on API 16 and up
+    private static final class ChoreographerSource implements FrameTicker.FrameSource, Choreographer.FrameCallback {
+        private FrameTicker ticker;
+
+        @Override
+        public void postFrame(FrameTicker ticker) {
+            this.ticker = ticker;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public long now() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            ticker.doFrame(frameTimeNanos / 1000000);
+        }
+    }
+
+    private static final class HandlerSource implements FrameTicker.FrameSource, Runnable {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+        private FrameTicker ticker;
+
+        @Override
+        public void postFrame(FrameTicker ticker) {
+            this.ticker = ticker;
+            handler.postDelayed(this, ValueAnimator.getFrameDelay());
+        }
+
+        @Override
+        public long now() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        @Override
+        public void run() {
+            ticker.doFrame(AnimationUtils.currentAnimationTimeMillis());
+        }
+    }
+}
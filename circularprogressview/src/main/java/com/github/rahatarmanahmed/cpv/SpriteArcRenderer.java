@@ -0,0 +1,181 @@
+package com.github.rahatarmanahmed.cpv;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+/**
+ * Draws the arc from pre-rendered bitmaps, one per sweep rounded to a step, rotated into place.
+ * Each sprite is rasterized the first time its sweep is drawn, so after the first cycle every frame is a bitmap blit.
+ * <p>
+ * Solid arcs are rendered as alpha masks, one byte per pixel, and tinted with the paint's color and color filter
+ * when drawn, like {@link IndeterminateFrameCache}'s frames, so changing the color keeps the sprites.
+ * A paint's shader is baked into full-color sprites instead, four bytes per pixel, and turns with the arc, which is
+ * how gradient arcs are drawn: from 0 degrees on a turned canvas. Counter-clockwise arcs with a shader use drawArc.
+ * Sprites are dropped whenever the oval, the stroke or the shader changes.
+ * <p>
+ * Larger arcs get a coarser step so that a sprite for every sweep fits in the byte budget, up to 6 degrees.
+ * With the default 4 MB budget, solid arcs up to about 150 px across (stroke included) get every 2 degree sprite,
+ * and arcs up to about 260 px get a full set at a coarser step, so no sweep is drawn with drawArc: a 48dp spinner
+ * is about 160 px across at xxhdpi and 210 px at xxxhdpi, and uses steps of about 2.2 and 3.8 degrees.
+ * Gradient arcs get a full set up to about 130 px. Beyond that, the sweeps past the budget fall back to drawArc:
+ * for an arc of side s px, about 1 - budget / (60 * s * s * bytes per pixel) of the sweeps, so half of them for a
+ * solid arc about 375 px across.
+ */
+public final class SpriteArcRenderer implements ArcRenderer {
+
+    /** The default step the sweep is rounded to, in degrees. */
+    public static final float DEFAULT_SWEEP_STEP = 2f;
+    /** The default byte budget for the sprites of one renderer, the same as the frame cache's. */
+    public static final int DEFAULT_MAX_BYTES = IndeterminateFrameCache.DEFAULT_MAX_BYTES;
+
+    // The coarsest step larger arcs are rounded to before sweeps fall back to drawArc
+    private static final float MAX_SWEEP_STEP = 6f;
+
+    private final float sweepStep;
+    private final int maxBytes;
+    private final Bitmap[] sprites;
+    private long byteCount;
+
+    // What the sprites were rendered for
+    private final RectF spriteSource = new RectF();
+    private float strokeWidth;
+    private int color, alpha;
+    private ColorFilter colorFilter;
+    private Shader shader;
+    private int side;
+    // Whether the sprites are alpha masks tinted when drawn, or full-color sprites of a shader
+    private boolean masks;
+    // The step the sweep is rounded to for the current size, and the number of sprites that takes
+    private float step;
+    private int spriteCount;
+
+    private final Paint spritePaint = new Paint();
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF spriteOval = new RectF();
+
+    public SpriteArcRenderer() {
+        this(DEFAULT_SWEEP_STEP, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param sweepStep the step the sweep is rounded to, in degrees. Larger steps need fewer sprites.
+     *                  Arcs too large for a sprite per step in the budget use a coarser step, up to 6 degrees.
+     * @param maxBytes the most memory the sprites may use
+     */
+    public SpriteArcRenderer(float sweepStep, int maxBytes) {
+        if(sweepStep <= 0)
+            throw new IllegalArgumentException("The sweep step must be positive, got " + sweepStep);
+        this.sweepStep = sweepStep;
+        this.maxBytes = maxBytes;
+        sprites = new Bitmap[(int) Math.ceil(360f / sweepStep) + 1];
+    }
+
+    @Override
+    public void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint) {
+        if(sweepAngle < 0 && paint.getShader() != null) {
+            // The sprite would have to start at the arc's end, taking the baked shader with it
+            canvas.drawArc(oval, startAngle, sweepAngle, false, paint);
+            return;
+        }
+
+        // Masks are tinted when drawn, so only full-color sprites depend on the paint's color
+        if(!oval.equals(spriteSource) || paint.getStrokeWidth() != strokeWidth || paint.getShader() != shader
+                || (!masks && (paint.getColor() != color || paint.getAlpha() != alpha || paint.getColorFilter() != colorFilter)))
+            rebuild(oval, paint);
+
+        int index = Math.round(Math.min(Math.abs(sweepAngle), 360f) / step);
+        if(index >= spriteCount)
+            index = spriteCount - 1;
+        if(index == 0)
+            return;
+
+        Bitmap sprite = sprites[index];
+        if(sprite == null) {
+            sprite = render(Math.min(index * step, 360f));
+            if(sprite == null) {
+                canvas.drawArc(oval, startAngle, sweepAngle, false, paint);
+                return;
+            }
+            sprites[index] = sprite;
+        }
+        // Sprites sweep clockwise, so a counter-clockwise arc is the same sprite started at its end.
+        // Only the sprite is shifted; the drawArc fallbacks above take the arc as given.
+        float spriteStart = sweepAngle < 0 ? startAngle + sweepAngle : startAngle;
+        int count = canvas.save();
+        canvas.rotate(spriteStart, oval.centerX(), oval.centerY());
+        if(masks) {
+            bitmapPaint.setColor(paint.getColor());
+            bitmapPaint.setColorFilter(paint.getColorFilter());
+        }
+        canvas.drawBitmap(sprite, oval.centerX() - side / 2f, oval.centerY() - side / 2f, bitmapPaint);
+        canvas.restoreToCount(count);
+    }
+
+    @Override
+    public void release() {
+        for(int i = 0; i < sprites.length; i++) {
+            if(sprites[i] != null) {
+                sprites[i].recycle();
+                sprites[i] = null;
+            }
+        }
+        byteCount = 0;
+        spriteSource.setEmpty();
+        shader = null;
+    }
+
+    private void rebuild(RectF oval, Paint paint) {
+        release();
+        spriteSource.set(oval);
+        strokeWidth = paint.getStrokeWidth();
+        color = paint.getColor();
+        alpha = paint.getAlpha();
+        colorFilter = paint.getColorFilter();
+        shader = paint.getShader();
+        masks = shader == null;
+        spritePaint.set(paint);
+        if(masks) {
+            // Only the coverage goes into a mask; the color and filter are applied when it is drawn
+            spritePaint.setColor(0xFF000000);
+            spritePaint.setColorFilter(null);
+        }
+        else {
+            // Full-color sprites already carry the paint's color and filter
+            bitmapPaint.setColor(0xFF000000);
+            bitmapPaint.setColorFilter(null);
+        }
+        // Room for the stroke on both sides and a pixel of antialiasing
+        float width = oval.width(), height = oval.height();
+        side = (int) Math.ceil(Math.max(width, height) + strokeWidth) + 2;
+        spriteOval.set((side - width) / 2f, (side - height) / 2f, (side + width) / 2f, (side + height) / 2f);
+
+        // As many steps as there are sprites fitting in the budget, up to one per sweepStep,
+        // and at least one per MAX_SWEEP_STEP even if only some of them fit
+        long fitting = maxBytes / spriteBytes();
+        int steps = (int) Math.min(sprites.length - 1, Math.max(fitting, (long) Math.ceil(360f / MAX_SWEEP_STEP)));
+        step = 360f / steps;
+        spriteCount = steps + 1;
+    }
+
+    private long spriteBytes() {
+        return (long) side * side * (masks ? 1 : 4);
+    }
+
+    // Rasterizes the arc starting at 0 degrees, or returns null if it doesn't fit in the budget
+    private Bitmap render(float sweep) {
+        long bytes = spriteBytes();
+        if(side <= 0 || byteCount + bytes > maxBytes)
+            return null;
+        Bitmap sprite = Bitmap.createBitmap(side, side, masks ? Bitmap.Config.ALPHA_8 : Bitmap.Config.ARGB_8888);
+        Canvas spriteCanvas = new Canvas(sprite);
+        // Draw the oval where it really is, moved into the sprite, so a shader lines up with it
+        spriteCanvas.translate(spriteOval.left - spriteSource.left, spriteOval.top - spriteSource.top);
+        spriteCanvas.drawArc(spriteSource, 0, sweep, false, spritePaint);
+        byteCount += bytes;
+        return sprite;
+    }
+}
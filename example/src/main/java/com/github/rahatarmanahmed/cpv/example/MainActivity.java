@@ -81,14 +81,12 @@ public class MainActivity extends Activity {
                     updateThread = new Thread(new Runnable() {
                         @Override
                         public void run() {
-                            while (progressView.getProgress() < progressView.getMaxProgress() && !Thread.interrupted()) {
-                                // Must set progress in UI thread
-                                handler.post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        progressView.setProgress(progressView.getProgress() + 10);
-                                    }
-                                });
+                            float progress = 0f;
+                            float maxProgress = progressView.getMaxProgress();
+                            while (progress < maxProgress && !Thread.interrupted()) {
+                                // Safe to call from any thread, the view applies it on the UI thread
+                                progress += 10;
+                                progressView.postProgress(progress);
                                 SystemClock.sleep(250);
                             }
                         }